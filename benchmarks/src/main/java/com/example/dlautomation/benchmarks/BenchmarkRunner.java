@@ -0,0 +1,30 @@
+package com.example.dlautomation.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line and always adds the GC
+ * profiler, so every result comes with its allocation rate ({@code gc.alloc.rate.norm} is bytes per
+ * operation).
+ *
+ * <pre>
+ * mvn -DskipTests install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar DocxReaderBenchmark
+ * java -jar benchmarks/target/benchmarks.jar DocReaderBenchmark -p docFolder=/path/to/mappings
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
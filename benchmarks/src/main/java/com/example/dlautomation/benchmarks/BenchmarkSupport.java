@@ -0,0 +1,35 @@
+package com.example.dlautomation.benchmarks;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Sends the application log to a file in {@code folder}, so console output does not distort the
+     * measurements. The level comes from {@code -Ddlautomation.log.level}, WARNING in the forked JVMs.
+     */
+    static void initializeLogging(Path folder) throws IOException {
+        GlobalLogger.initialize(folder.resolve("benchmark.log").toString());
+    }
+
+    static void deleteRecursively(Path folder) throws IOException {
+        GlobalLogger.shutdown();
+        if (folder == null || !Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
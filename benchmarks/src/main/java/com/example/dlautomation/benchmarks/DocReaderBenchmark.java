@@ -0,0 +1,63 @@
+package com.example.dlautomation.benchmarks;
+
+import com.example.dlautomation.logic.readers.DocWordReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads every .doc file of a folder of real mapping documents, given with {@code -p docFolder=<path>}.
+ * HWPF cannot create .doc files, so unlike the .docx benchmarks there is no generated input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Ddlautomation.log.level=WARNING")
+public class DocReaderBenchmark {
+
+    @Param("")
+    private String docFolder;
+
+    private Path logFolder;
+    private List<String> documents;
+
+    @Setup(Level.Trial)
+    public void findDocuments() throws IOException {
+        if (docFolder.isEmpty()) {
+            throw new IllegalStateException("No .doc corpus given; run with -p docFolder=<folder with .doc files>");
+        }
+        try (Stream<Path> paths = Files.walk(Paths.get(docFolder))) {
+            documents = paths
+                    .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".doc"))
+                    .map(Path::toString)
+                    .sorted()
+                    .toList();
+        }
+        if (documents.isEmpty()) {
+            throw new IllegalStateException("No .doc files found in " + docFolder);
+        }
+        logFolder = Files.createTempDirectory("dlautomation-doc-bench");
+        BenchmarkSupport.initializeLogging(logFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLog() throws IOException {
+        BenchmarkSupport.deleteRecursively(logFolder);
+    }
+
+    @Benchmark
+    public void docWordReader(Blackhole blackhole) throws IOException {
+        for (String document : documents) {
+            blackhole.consume(new DocWordReader(document).extract());
+        }
+    }
+}
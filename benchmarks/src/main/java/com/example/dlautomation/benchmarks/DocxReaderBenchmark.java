@@ -0,0 +1,56 @@
+package com.example.dlautomation.benchmarks;
+
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import com.example.dlautomation.logic.readers.DocxWordReader;
+import com.example.dlautomation.logic.readers.StaxDocxWordReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Ddlautomation.log.level=WARNING")
+public class DocxReaderBenchmark {
+
+    @Param({"2", "10"})
+    private int tables;
+
+    @Param({"20", "200"})
+    private int rowsPerTable;
+
+    @Param({"0.1", "0.5"})
+    private double redRunDensity;
+
+    private Path folder;
+    private String document;
+
+    @Setup(Level.Trial)
+    public void generateDocument() throws IOException {
+        folder = Files.createTempDirectory("dlautomation-docx-bench");
+        BenchmarkSupport.initializeLogging(folder);
+        Path file = folder.resolve("MOD_M0.MAP_D0.docx");
+        new SyntheticDocumentGenerator(tables, rowsPerTable, 3, redRunDensity, 42).writeDocx(file, 0);
+        document = file.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDocument() throws IOException {
+        BenchmarkSupport.deleteRecursively(folder);
+    }
+
+    @Benchmark
+    public DocumentExtraction docxWordReader() throws IOException {
+        return new DocxWordReader(document).extract();
+    }
+
+    @Benchmark
+    public DocumentExtraction staxDocxWordReader() throws IOException {
+        return new StaxDocxWordReader(document).extract();
+    }
+}
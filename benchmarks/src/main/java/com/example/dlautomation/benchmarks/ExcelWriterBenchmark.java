@@ -0,0 +1,55 @@
+package com.example.dlautomation.benchmarks;
+
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.ExcelUpdater;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Ddlautomation.log.level=WARNING")
+public class ExcelWriterBenchmark {
+
+    @Param({"1000", "50000"})
+    private int changeCount;
+
+    private Path folder;
+    private String output;
+    private List<ChangeInfo> changes;
+
+    @Setup(Level.Trial)
+    public void createChanges() throws IOException {
+        folder = Files.createTempDirectory("dlautomation-excel-bench");
+        BenchmarkSupport.initializeLogging(folder);
+        output = folder.resolve("changes.xlsx").toString();
+
+        Random random = new Random(42);
+        changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            String text = "Feld wird aus der Quelle übernommen " + random.nextInt(1000);
+            changes.add(new ChangeInfo("TAB_" + (i % 40), "FELD_" + i, text, "R" + (i % 12 + 1) + ".0",
+                    "D" + (i % 300), random.nextBoolean(), random.nextInt(4) == 0 ? "Rückbau Logik" : "Neue Logik",
+                    text + " sonst leer"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFolder() throws IOException {
+        BenchmarkSupport.deleteRecursively(folder);
+    }
+
+    @Benchmark
+    public void writeChangesToExcel() throws IOException {
+        ExcelUpdater.writeChangesToExcel(changes, output);
+    }
+}
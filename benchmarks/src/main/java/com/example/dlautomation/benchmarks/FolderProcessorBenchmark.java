@@ -0,0 +1,57 @@
+package com.example.dlautomation.benchmarks;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import com.example.dlautomation.logic.models.FolderProcessor;
+import com.example.dlautomation.logic.models.ProcessingOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Ddlautomation.log.level=WARNING")
+public class FolderProcessorBenchmark {
+
+    @Param("50")
+    private int documents;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    @Param({"false", "true"})
+    private boolean streamingDocxReader;
+
+    private Path folder;
+    private Path input;
+    private String output;
+    private ProcessingOptions options;
+
+    @Setup(Level.Trial)
+    public void generateFolder() throws IOException {
+        folder = Files.createTempDirectory("dlautomation-folder-bench");
+        BenchmarkSupport.initializeLogging(folder);
+        input = folder.resolve("mappings");
+        new SyntheticDocumentGenerator(4, 50, 3, 0.2, 42).generateFolder(input, documents);
+        output = folder.resolve("changes.xlsx").toString();
+
+        options = new ProcessingOptions();
+        options.setParallelism(parallelism);
+        options.setStreamingDocxReader(streamingDocxReader);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFolder() throws IOException {
+        BenchmarkSupport.deleteRecursively(folder);
+    }
+
+    @Benchmark
+    public RunMetrics processFolder() throws IOException {
+        return FolderProcessor.processFolder(input.toString(), output, options);
+    }
+}
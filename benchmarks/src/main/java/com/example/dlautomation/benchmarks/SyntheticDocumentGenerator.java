@@ -0,0 +1,117 @@
+package com.example.dlautomation.benchmarks;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates .docx mapping documents shaped like the real ones: a header table with
+ * "Tabellenname/View" and "Releasestand", followed by change tables whose second column holds a mix
+ * of plain and red runs. The same seed always produces the same documents.
+ *
+ * <p>Only .docx can be generated: HWPF can edit existing .doc files but cannot create one, so the
+ * .doc benchmarks read a folder of real documents instead.
+ */
+public class SyntheticDocumentGenerator {
+
+    private static final String[] WORDS = {
+            "Feld", "wird", "aus", "der", "Quelle", "übernommen", "wenn", "Status", "aktiv", "ist",
+            "sonst", "leer", "Join", "auf", "Vertrag", "Kunde", "Datum", "gültig", "bis", "Betrag"
+    };
+
+    private final int tables;
+    private final int rowsPerTable;
+    private final int runsPerCell;
+    private final double redRunDensity;
+    private final long seed;
+
+    public SyntheticDocumentGenerator(int tables, int rowsPerTable, int runsPerCell, double redRunDensity, long seed) {
+        if (tables < 0 || rowsPerTable < 0 || runsPerCell < 1) {
+            throw new IllegalArgumentException("Invalid document shape: " + tables + " tables, "
+                    + rowsPerTable + " rows per table, " + runsPerCell + " runs per cell");
+        }
+        if (redRunDensity < 0 || redRunDensity > 1) {
+            throw new IllegalArgumentException("Red run density must be between 0 and 1, was " + redRunDensity);
+        }
+        this.tables = tables;
+        this.rowsPerTable = rowsPerTable;
+        this.runsPerCell = runsPerCell;
+        this.redRunDensity = redRunDensity;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes {@code documents} files named like the real mappings ({@code MOD_<module>.MAP_<mapping>.docx})
+     * into {@code folder}.
+     */
+    public List<Path> generateFolder(Path folder, int documents) throws IOException {
+        Files.createDirectories(folder);
+        List<Path> files = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            Path file = folder.resolve("MOD_M" + (i % 5) + ".MAP_D" + i + ".docx");
+            writeDocx(file, i);
+            files.add(file);
+        }
+        return files;
+    }
+
+    public void writeDocx(Path file, int documentNumber) throws IOException {
+        Random random = new Random(seed * 31 + documentNumber);
+        try (XWPFDocument document = new XWPFDocument()) {
+            XWPFTable header = document.createTable(2, 2);
+            header.getRow(0).getCell(0).setText("Tabellenname/View");
+            header.getRow(0).getCell(1).setText("TAB_" + documentNumber);
+            header.getRow(1).getCell(0).setText("Releasestand");
+            header.getRow(1).getCell(1).setText("R" + (documentNumber % 12 + 1) + ".0");
+
+            for (int t = 0; t < tables; t++) {
+                XWPFTable table = document.createTable(rowsPerTable, 3);
+                for (int r = 0; r < rowsPerTable; r++) {
+                    fillRow(table.getRow(r), t, r, random);
+                }
+            }
+
+            try (OutputStream out = Files.newOutputStream(file)) {
+                document.write(out);
+            }
+        }
+    }
+
+    private void fillRow(XWPFTableRow row, int table, int rowNumber, Random random) {
+        row.getCell(0).setText("FELD_" + table + "_" + rowNumber);
+
+        XWPFParagraph paragraph = row.getCell(1).getParagraphs().get(0);
+        for (int i = 0; i < runsPerCell; i++) {
+            XWPFRun run = paragraph.createRun();
+            run.setText(sentence(random));
+            if (random.nextDouble() < redRunDensity) {
+                run.setColor("FF0000");
+                run.setStrikeThrough(random.nextInt(4) == 0);
+            }
+        }
+
+        row.getCell(2).setText(sentence(random));
+    }
+
+    private static String sentence(Random random) {
+        int words = 2 + random.nextInt(6);
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append(' ').toString();
+    }
+}
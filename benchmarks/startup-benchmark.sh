@@ -0,0 +1,42 @@
+#!/bin/sh
+# Compares process wall time of the ways to run an extraction, median of N runs each:
+#   spring   - Spring Boot application start with the web server off and no extraction, i.e. what the
+#              Spring path pays before the first document is read
+#   cli      - DlAutomationCli extracting the folder, default JDK class sharing only
+#   cli-cds  - the same with the application class data sharing archive from the cli profile
+#
+# Build first:  mvn -Pcli package -DskipTests
+# Usage:        benchmarks/startup-benchmark.sh <folder> [runs]
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+FOLDER=${1:?Usage: startup-benchmark.sh <folder> [runs]}
+RUNS=${2:-5}
+CLI_DIR="$ROOT/target/cli"
+CLI_JAR=$(ls "$CLI_DIR"/*-cli.jar)
+SPRING_JAR=$(ls "$ROOT"/target/DLAutomation-*.jar | grep -v -- '-plain\.jar$')
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+CLI_PROPS="-Ddlautomation.cache=off -Ddlautomation.metrics.report=$WORK/report.json -Ddlautomation.log.file=$WORK/run.log"
+
+# Times one run in milliseconds and appends it to $WORK/<variant>.times.
+run() {
+    variant=$1
+    shift
+    start=$(date +%s%3N)
+    "$@" > "$WORK/$variant.out" 2>&1 || { cat "$WORK/$variant.out"; exit 1; }
+    echo $(( $(date +%s%3N) - start )) >> "$WORK/$variant.times"
+}
+
+# The variants take turns so that drift in machine load affects all of them alike.
+for i in $(seq "$RUNS"); do
+    run spring java -jar "$SPRING_JAR" --spring.main.web-application-type=none --dlautomation.service.warm-up=false
+    run cli java $CLI_PROPS -jar "$CLI_JAR" "$FOLDER" "$WORK/out.xlsx"
+    run cli-cds java -XX:SharedArchiveFile="$CLI_DIR/dlautomation.jsa" $CLI_PROPS -jar "$CLI_JAR" "$FOLDER" "$WORK/out.xlsx"
+done
+
+printf '%-8s %8s\n' variant median_ms
+for variant in spring cli cli-cds; do
+    printf '%-8s %8s\n' "$variant" "$(sort -n "$WORK/$variant.times" | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }')"
+done
@@ -0,0 +1,11 @@
+@echo off
+rem Runs DlAutomationCli without Spring, with the application classes preloaded from a class data
+rem sharing archive. The archive is only valid for the jar path it was recorded with, so it is
+rem recorded again by a short training run whenever it is missing.
+set "DIR=%~dp0"
+set "JAR=%DIR%@project.build.finalName@-cli.jar"
+set "ARCHIVE=%DIR%dlautomation.jsa"
+if not exist "%ARCHIVE%" (
+    java -XX:ArchiveClassesAtExit="%ARCHIVE%" -Xlog:cds=error -jar "%JAR%" --train || del "%ARCHIVE%" 2>nul
+)
+java -XX:SharedArchiveFile="%ARCHIVE%" -Xshare:auto %JAVA_OPTS% -jar "%JAR%" %*
@@ -0,0 +1,11 @@
+#!/bin/sh
+# Runs DlAutomationCli without Spring, with the application classes preloaded from a class data
+# sharing archive. The archive is only valid for the jar path it was recorded with, so it is
+# recorded again by a short training run whenever it is missing.
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR="$DIR/@project.build.finalName@-cli.jar"
+ARCHIVE="$DIR/dlautomation.jsa"
+if [ ! -f "$ARCHIVE" ]; then
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=error -jar "$JAR" --train || rm -f "$ARCHIVE"
+fi
+exec java -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto $JAVA_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,155 @@
+package com.example.dlautomation.cli;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.FolderProcessor;
+import com.example.dlautomation.logic.models.FolderWatcher;
+import com.example.dlautomation.logic.models.ProcessingOptions;
+import com.example.dlautomation.logic.models.SampleDocument;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point for one-off batch runs. Unlike {@code DlAutomationApplication} it does not
+ * start a Spring context, so a run only loads the classes extraction needs.
+ * <pre>
+ * DlAutomationCli &lt;folder&gt; [&lt;output.xlsx&gt;] [--parallelism N] [--watch]
+ * DlAutomationCli --train
+ * </pre>
+ * All other settings are the {@code dlautomation.*} system properties read by {@link FolderProcessor#main}.
+ * {@code --train} extracts a generated sample document and exits; the cli profile runs it to record
+ * the class data sharing archive.
+ */
+public class DlAutomationCli {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private static final String USAGE = "Usage: DlAutomationCli <folder> [<output.xlsx>] [--parallelism N] [--watch]\n"
+            + "       DlAutomationCli --train";
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Processing failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static int run(String[] args) throws IOException {
+        Path folder = null;
+        Path output = null;
+        Integer parallelism = null;
+        boolean watch = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--train" -> {
+                    return train();
+                }
+                case "--watch" -> watch = true;
+                case "--parallelism", "-p" -> {
+                    if (i + 1 == args.length) {
+                        throw new IllegalArgumentException("Missing value for " + args[i]);
+                    }
+                    parallelism = parsePositive(args[++i]);
+                }
+                default -> {
+                    if (args[i].startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    } else if (folder == null) {
+                        folder = Paths.get(args[i]);
+                    } else if (output == null) {
+                        output = Paths.get(args[i]);
+                    } else {
+                        throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                    }
+                }
+            }
+        }
+        if (folder == null) {
+            throw new IllegalArgumentException("No input folder given");
+        }
+        if (!Files.isDirectory(folder)) {
+            throw new IllegalArgumentException("Not a folder: " + folder);
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        if (output == null) {
+            output = Paths.get("extracted-data-" + timestamp + ".xlsx");
+        }
+        output = output.toAbsolutePath();
+        Path outputFolder = output.getParent();
+        Files.createDirectories(outputFolder);
+
+        GlobalLogger.initialize(System.getProperty("dlautomation.log.file",
+                outputFolder.resolve("application-" + timestamp + ".log").toString()));
+        try {
+            ProcessingOptions options = FolderProcessor.optionsFromSystemProperties(
+                    outputFolder.resolve("run-metrics-" + timestamp + ".json"));
+            if (parallelism != null) {
+                options.setParallelism(parallelism);
+            }
+            logger.log(Level.INFO, "Starting folder processing with folder path: {0} and output path: {1}", new Object[]{folder, output});
+
+            if (watch) {
+                try (FolderWatcher watcher = new FolderWatcher(folder, output, options,
+                        Long.getLong("dlautomation.watch.debounceMillis", FolderWatcher.DEFAULT_DEBOUNCE_MILLIS))) {
+                    watcher.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 0;
+            }
+
+            FolderProcessor.processFolder(folder.toString(), output.toString(), options);
+            System.out.println("Results saved to: " + output);
+            return 0;
+        } finally {
+            GlobalLogger.shutdown();
+        }
+    }
+
+    // Exercises reading, parsing and writing once without touching the user's cache or folders.
+    private static int train() throws IOException {
+        Path folder = Files.createTempDirectory("dlautomation-train");
+        try {
+            Files.write(folder.resolve(SampleDocument.FILE_NAME), SampleDocument.createDocx());
+            GlobalLogger.initialize(folder.resolve("train.log").toString());
+            ProcessingOptions options = new ProcessingOptions();
+            FolderProcessor.processFolder(folder.toString(), folder.resolve("train.xlsx").toString(), options);
+            options.setStreamingDocxReader(true);
+            FolderProcessor.processFolder(folder.toString(), folder.resolve("train-stax.xlsx").toString(), options);
+            return 0;
+        } finally {
+            GlobalLogger.shutdown();
+            try (Stream<Path> files = Files.walk(folder)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static int parsePositive(String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1, was " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.dlautomation.logic.cache;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.ChangeInfoSerializer;
+import com.example.dlautomation.logic.models.ContentHasher;
+import com.example.dlautomation.logic.readers.AbstractWordReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * On-disk index of the changes a run produced, so the next run can tell which of its changes are new
+ * and which disappeared. A change is identified by mapping, table name, change number and a hash of
+ * its content (change text, logic, row text and whether it is fully red). Releasestand is not part of
+ * the hash, so a release bump alone does not report every change again; an edited change shows up as
+ * one removed and one added change.
+ * <p>
+ * The previous run's entries are only compared against when they were written for the same scope
+ * (folder and globs). The next index is streamed to a temporary file while the run writes its changes
+ * and replaces the previous one on {@link #commit()}. Only the keys of the previous changes stay on the
+ * heap; the changes themselves wait serialized in a {@link SpillBuffer} until they are listed as removed.
+ */
+public class ChangeIndex {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.CACHE);
+
+    private static final int MAGIC = 0x444C4349; // "DLCI"
+    private static final int FORMAT_VERSION = 1;
+
+    @FunctionalInterface
+    public interface ChangeHandler {
+        void handle(ChangeInfo change) throws IOException;
+    }
+
+    private final Path indexFile;
+    private final Path tempFile;
+    private final boolean hasPrevious;
+    private final Map<Key, ArrayDeque<Long>> previous;
+    private final SpillBuffer previousChanges;
+    private final DataOutputStream out;
+    private int written;
+    private int unchanged;
+
+    private ChangeIndex(Path indexFile, boolean hasPrevious, Map<Key, ArrayDeque<Long>> previous,
+                        SpillBuffer previousChanges, String scope) throws IOException {
+        this.indexFile = indexFile;
+        this.hasPrevious = hasPrevious;
+        this.previous = previous;
+        this.previousChanges = previousChanges;
+
+        Path parent = indexFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(AbstractWordReader.EXTRACTION_VERSION);
+        ChangeInfoSerializer.writeString(out, scope);
+    }
+
+    /**
+     * Loads the previous run's index if it was written for {@code scope} and starts the next one.
+     *
+     * @param heapLimitBytes heap the previous changes may take before they move to a memory-mapped file
+     */
+    public static ChangeIndex open(Path indexFile, String scope, long heapLimitBytes) throws IOException {
+        Map<Key, ArrayDeque<Long>> entries = new LinkedHashMap<>();
+        SpillBuffer changes = new SpillBuffer(heapLimitBytes);
+        boolean hasPrevious = false;
+        if (Files.exists(indexFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                    logger.log(Level.INFO, "Change index {0} has another format, comparing against nothing.", indexFile);
+                } else {
+                    int extractionVersion = in.readInt();
+                    String previousScope = ChangeInfoSerializer.readString(in);
+                    if (!scope.equals(previousScope)) {
+                        logger.log(Level.INFO, "Change index {0} belongs to {1}, comparing against nothing.",
+                                new Object[]{indexFile, previousScope});
+                    } else {
+                        if (extractionVersion != AbstractWordReader.EXTRACTION_VERSION) {
+                            logger.log(Level.WARNING, "Change index {0} was written by another extraction version; "
+                                    + "the delta may list changes whose extraction changed.", indexFile);
+                        }
+                        int count = 0;
+                        while (in.readBoolean()) {
+                            ChangeInfo change = ChangeInfoSerializer.read(in);
+                            long handle = changes.append(serialize(change));
+                            entries.computeIfAbsent(new Key(change), key -> new ArrayDeque<>()).add(handle);
+                            count++;
+                        }
+                        hasPrevious = true;
+                        logger.log(Level.INFO, "Loaded {0} changes of the previous run from {1}", new Object[]{count, indexFile});
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Change index " + indexFile + " is unreadable, comparing against nothing.", e);
+                entries.clear();
+                hasPrevious = false;
+            }
+        }
+        try {
+            return new ChangeIndex(indexFile, hasPrevious, entries, changes, scope);
+        } catch (IOException | RuntimeException e) {
+            changes.close();
+            throw e;
+        }
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    /**
+     * Adds the change to the next index and returns whether the previous run had the same change.
+     * Every previous change matches at most one change of this run.
+     */
+    public boolean record(ChangeInfo change) throws IOException {
+        out.writeBoolean(true);
+        ChangeInfoSerializer.write(out, change);
+        written++;
+
+        Key key = new Key(change);
+        ArrayDeque<Long> candidates = previous.get(key);
+        if (candidates == null) {
+            return false;
+        }
+        candidates.poll();
+        if (candidates.isEmpty()) {
+            previous.remove(key);
+        }
+        unchanged++;
+        return true;
+    }
+
+    /**
+     * Hands the previous run's changes that no change of this run matched so far to {@code handler}, in
+     * the previous run's order, decoding one at a time. Returns how many there were.
+     */
+    public int forEachRemoved(ChangeHandler handler) throws IOException {
+        int removed = 0;
+        for (ArrayDeque<Long> handles : previous.values()) {
+            for (long handle : handles) {
+                handler.handle(ChangeInfoSerializer.read(new DataInputStream(
+                        new ByteArrayInputStream(previousChanges.read(handle)))));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int getUnchangedCount() {
+        return unchanged;
+    }
+
+    /**
+     * Replaces the previous index with the changes recorded in this run.
+     */
+    public void commit() throws IOException {
+        previousChanges.close();
+        out.writeBoolean(false);
+        out.close();
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        logger.log(Level.INFO, "Saved {0} changes to change index {1}", new Object[]{written, indexFile});
+    }
+
+    /**
+     * Drops the changes recorded in this run and keeps the previous index.
+     */
+    public void discard() throws IOException {
+        previousChanges.close();
+        out.close();
+        Files.deleteIfExists(tempFile);
+    }
+
+    private static byte[] serialize(ChangeInfo change) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ChangeInfoSerializer.write(out, change);
+        }
+        return bytes.toByteArray();
+    }
+
+    static long contentHash(ChangeInfo change) {
+        long hash = ContentHasher.FNV_OFFSET_BASIS;
+        hash = ContentHasher.fnv1a(hash, change.getChange());
+        hash = ContentHasher.fnv1a(hash, change.getLogik());
+        hash = ContentHasher.fnv1a(hash, change.getWholeString());
+        return ContentHasher.fnv1a(hash, change.isFullyRed());
+    }
+
+    private static class Key {
+        private final String mappingName;
+        private final String tableName;
+        private final String changeNumber;
+        private final long contentHash;
+
+        private Key(ChangeInfo change) {
+            this.mappingName = change.getMappingName();
+            this.tableName = change.getTableName();
+            this.changeNumber = change.getChangeNumber();
+            this.contentHash = contentHash(change);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return contentHash == key.contentHash
+                    && Objects.equals(mappingName, key.mappingName)
+                    && Objects.equals(tableName, key.tableName)
+                    && Objects.equals(changeNumber, key.changeNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mappingName, tableName, changeNumber) * 31 + Long.hashCode(contentHash);
+        }
+    }
+}
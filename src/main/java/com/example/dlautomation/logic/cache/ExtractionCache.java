@@ -0,0 +1,274 @@
+package com.example.dlautomation.logic.cache;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.ChangeInfoSerializer;
+import com.example.dlautomation.logic.models.ContentHasher;
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import com.example.dlautomation.logic.readers.AbstractWordReader;
+import com.example.dlautomation.logic.readers.ExtractionRules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * On-disk cache of per-document extraction results, keyed by absolute path and validated against
+ * size and modification time. With content hashing enabled, a document whose mtime changed but whose
+ * bytes did not (e.g. touched by a sync client) is still served from the cache.
+ * <p>
+ * The file is discarded as a whole when the cache format, {@link AbstractWordReader#EXTRACTION_VERSION}
+ * or the {@link ExtractionRules#fingerprint() extraction rules} differ from the ones it was written with.
+ * <p>
+ * Only the file attributes are kept per document; the extractions themselves are held serialized in a
+ * {@link SpillBuffer}, which moves them to a memory-mapped file past its heap limit, and are decoded again
+ * on each hit. The cache therefore needs little heap however many documents it covers. Replaced
+ * extractions (a watched folder re-extracts changed documents) stay in the buffer until a save finds
+ * that most of it is garbage and moves the live extractions into a new one.
+ */
+public class ExtractionCache implements Closeable {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.CACHE);
+
+    private static final int MAGIC = 0x444C4143; // "DLAC"
+    private static final int FORMAT_VERSION = 3;
+
+    private final Path cacheFile;
+    private final boolean verifyContentHash;
+    private final long rulesFingerprint;
+    private final long heapLimitBytes;
+    private volatile SpillBuffer extractions;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private ExtractionCache(Path cacheFile, boolean verifyContentHash, long rulesFingerprint, long heapLimitBytes,
+                            SpillBuffer extractions, Map<String, Entry> previousEntries) {
+        this.cacheFile = cacheFile;
+        this.verifyContentHash = verifyContentHash;
+        this.rulesFingerprint = rulesFingerprint;
+        this.heapLimitBytes = heapLimitBytes;
+        this.extractions = extractions;
+        this.previousEntries = previousEntries;
+    }
+
+    /**
+     * @param heapLimitBytes heap the cached extractions may take before they move to a memory-mapped file
+     */
+    public static ExtractionCache load(Path cacheFile, boolean verifyContentHash, ExtractionRules rules,
+                                       long heapLimitBytes) {
+        SpillBuffer extractions = new SpillBuffer(heapLimitBytes);
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.exists(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                        || in.readInt() != AbstractWordReader.EXTRACTION_VERSION
+                        || in.readLong() != rules.fingerprint()) {
+                    logger.log(Level.INFO, "Extraction cache {0} was written by another version, starting empty.", cacheFile);
+                } else {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        Entry entry = readEntry(in, extractions);
+                        entries.put(entry.path, entry);
+                    }
+                    logger.log(Level.INFO, "Loaded {0} cached extractions from {1}", new Object[]{count, cacheFile});
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Extraction cache " + cacheFile + " is unreadable, starting empty.", e);
+                entries.clear();
+            }
+        }
+        return new ExtractionCache(cacheFile, verifyContentHash, rules.fingerprint(), heapLimitBytes, extractions, entries);
+    }
+
+    /**
+     * Returns the cached extraction for the document, or {@code null} if it is new or has changed
+     * since it was cached.
+     */
+    public DocumentExtraction get(Path document) throws IOException {
+        String key = document.toAbsolutePath().toString();
+        Entry entry = currentEntries.get(key);
+        if (entry == null) {
+            entry = previousEntries.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(document, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        if (entry.size == size && entry.lastModified == lastModified) {
+            return hit(key, entry);
+        }
+        if (verifyContentHash && entry.size == size && entry.hasContentHash
+                && entry.contentHash == ContentHasher.hash(document)) {
+            logger.log(Level.FINE, "Modification time of {0} changed but content did not.", key);
+            return hit(key, new Entry(key, size, lastModified, true, entry.contentHash, entry.extraction));
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(Path document, DocumentExtraction extraction) throws IOException {
+        String key = document.toAbsolutePath().toString();
+        BasicFileAttributes attributes = Files.readAttributes(document, BasicFileAttributes.class);
+        long contentHash = verifyContentHash ? ContentHasher.hash(document) : 0L;
+        currentEntries.put(key, new Entry(key, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                verifyContentHash, contentHash, extractions.append(ChangeInfoSerializer.toBytes(extraction))));
+    }
+
+    public void remove(Path document) {
+        String key = document.toAbsolutePath().toString();
+        currentEntries.remove(key);
+        previousEntries.remove(key);
+    }
+
+    /**
+     * Writes the entries used or added during this run, so documents that disappeared from the
+     * folder drop out of the cache. Entries not used so far are dropped from memory as well.
+     */
+    public void save() throws IOException {
+        Path parent = cacheFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        List<Entry> entries = new ArrayList<>(currentEntries.values());
+        long liveBytes = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(AbstractWordReader.EXTRACTION_VERSION);
+            out.writeLong(rulesFingerprint);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                byte[] extraction = extractions.read(entry.extraction);
+                writeEntry(out, entry, extraction);
+                liveBytes += Integer.BYTES + extraction.length;
+            }
+        }
+        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        logger.log(Level.INFO, "Saved {0} extractions to cache {1} ({2} hits, {3} misses)",
+                new Object[]{entries.size(), cacheFile, hits.get(), misses.get()});
+
+        previousEntries.clear();
+        if (extractions.size() > 2 * liveBytes) {
+            compact(entries, liveBytes);
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Deletes the file the extractions may have spilled to; the cache cannot be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        extractions.close();
+    }
+
+    long bufferedBytes() {
+        return extractions.size();
+    }
+
+    // Copies the extractions of the saved entries into a new buffer, leaving the replaced ones behind.
+    private void compact(List<Entry> entries, long liveBytes) throws IOException {
+        SpillBuffer compacted = new SpillBuffer(heapLimitBytes);
+        try {
+            for (Entry entry : entries) {
+                long handle = compacted.append(extractions.read(entry.extraction));
+                currentEntries.put(entry.path, entry.withExtraction(handle));
+            }
+        } catch (IOException e) {
+            compacted.close();
+            throw e;
+        }
+        SpillBuffer replaced = extractions;
+        logger.log(Level.INFO, "Compacted cached extractions from {0} to {1} KB",
+                new Object[]{replaced.size() / 1024, liveBytes / 1024});
+        extractions = compacted;
+        replaced.close();
+    }
+
+    private DocumentExtraction hit(String key, Entry entry) throws IOException {
+        hits.incrementAndGet();
+        currentEntries.put(key, entry);
+        return ChangeInfoSerializer.fromBytes(extractions.read(entry.extraction));
+    }
+
+    // The extraction goes into the file as the record the spill buffer holds, so saving and loading
+    // copy it without decoding it.
+    private static void writeEntry(DataOutputStream out, Entry entry, byte[] extraction) throws IOException {
+        ChangeInfoSerializer.writeString(out, entry.path);
+        out.writeLong(entry.size);
+        out.writeLong(entry.lastModified);
+        out.writeBoolean(entry.hasContentHash);
+        out.writeLong(entry.contentHash);
+        out.writeInt(extraction.length);
+        out.write(extraction);
+    }
+
+    private static Entry readEntry(DataInputStream in, SpillBuffer extractions) throws IOException {
+        String path = ChangeInfoSerializer.readString(in);
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        boolean hasContentHash = in.readBoolean();
+        long contentHash = in.readLong();
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid extraction length " + length + " for " + path);
+        }
+        byte[] extraction = new byte[length];
+        in.readFully(extraction);
+        return new Entry(path, size, lastModified, hasContentHash, contentHash, extractions.append(extraction));
+    }
+
+    private static class Entry {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+        private final boolean hasContentHash;
+        private final long contentHash;
+        // Handle of the serialized extraction in the spill buffer.
+        private final long extraction;
+
+        private Entry(String path, long size, long lastModified, boolean hasContentHash, long contentHash,
+                      long extraction) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hasContentHash = hasContentHash;
+            this.contentHash = contentHash;
+            this.extraction = extraction;
+        }
+
+        private Entry withExtraction(long handle) {
+            return new Entry(path, size, lastModified, hasContentHash, contentHash, handle);
+        }
+    }
+}
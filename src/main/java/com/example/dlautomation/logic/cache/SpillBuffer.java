@@ -0,0 +1,162 @@
+package com.example.dlautomation.logic.cache;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only store for serialized records, e.g. the changes of one document, addressed by the handle
+ * {@link #append(byte[])} returns. Records stay in a heap array until they would take more than the heap
+ * limit; from then on all records live in a temporary file mapped into memory in segments, so the heap
+ * no longer grows with the number of records and the OS pages them in and out as needed. The file is
+ * deleted on {@link #close()}.
+ * <p>
+ * Nothing is reclaimed while the buffer is open; owners that replace records copy the live ones into a
+ * new buffer once enough of this one is garbage.
+ */
+public final class SpillBuffer implements Closeable {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.CACHE);
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** The largest heap limit; records beyond it go to the file however high the limit is set. */
+    public static final long MAX_HEAP_LIMIT_BYTES = Integer.MAX_VALUE - 8;
+
+    private final long heapLimitBytes;
+    private final int segmentSize;
+    private byte[] heap = new byte[1024];
+    private long size;
+    private Path spillFile;
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    public SpillBuffer(long heapLimitBytes) {
+        this(heapLimitBytes, DEFAULT_SEGMENT_SIZE);
+    }
+
+    SpillBuffer(long heapLimitBytes, int segmentSize) {
+        this.heapLimitBytes = Math.min(heapLimitBytes, MAX_HEAP_LIMIT_BYTES);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Stores a copy of {@code record} and returns its handle.
+     */
+    public synchronized long append(byte[] record) throws IOException {
+        checkOpen();
+        long handle = size;
+        byte[] length = ByteBuffer.allocate(Integer.BYTES).putInt(record.length).array();
+        write(length);
+        write(record);
+        return handle;
+    }
+
+    public synchronized byte[] read(long handle) throws IOException {
+        checkOpen();
+        byte[] length = new byte[Integer.BYTES];
+        read(handle, length);
+        byte[] record = new byte[ByteBuffer.wrap(length).getInt()];
+        read(handle + Integer.BYTES, record);
+        return record;
+    }
+
+    /**
+     * Bytes taken by all records appended so far, including their length prefixes.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    synchronized boolean isSpilled() {
+        return channel != null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        heap = null;
+        segments.clear();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            // DELETE_ON_CLOSE already removed it where the OS allows deleting a mapped file.
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Spill file " + spillFile + " is deleted on exit", e);
+                spillFile.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (heap == null && channel == null) {
+            throw new IOException("Spill buffer is closed");
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (channel == null && size + bytes.length > heapLimitBytes) {
+            spill();
+        }
+        if (channel == null) {
+            if (size + bytes.length > heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(heapLimitBytes, Math.max(heap.length * 2L, size + bytes.length)));
+            }
+            System.arraycopy(bytes, 0, heap, (int) size, bytes.length);
+        } else {
+            int offset = 0;
+            while (offset < bytes.length) {
+                long position = size + offset;
+                int segment = (int) (position / segmentSize);
+                int inSegment = (int) (position % segmentSize);
+                while (segments.size() <= segment) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+                }
+                int chunk = Math.min(bytes.length - offset, segmentSize - inSegment);
+                segments.get(segment).put(inSegment, bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+        size += bytes.length;
+    }
+
+    private void read(long position, byte[] bytes) {
+        if (channel == null) {
+            System.arraycopy(heap, (int) position, bytes, 0, bytes.length);
+            return;
+        }
+        int offset = 0;
+        while (offset < bytes.length) {
+            long current = position + offset;
+            int inSegment = (int) (current % segmentSize);
+            int chunk = Math.min(bytes.length - offset, segmentSize - inSegment);
+            segments.get((int) (current / segmentSize)).get(inSegment, bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    private void spill() throws IOException {
+        spillFile = Files.createTempFile("dlautomation-spill", ".bin");
+        channel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        byte[] buffered = Arrays.copyOf(heap, (int) size);
+        heap = null;
+        size = 0;
+        write(buffered);
+        logger.log(Level.INFO, "Spilled {0} MB of buffered changes to {1}",
+                new Object[]{buffered.length / (1024 * 1024), spillFile});
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.dlautomation.logic.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to a background thread through a bounded ring buffer, so callers never wait on
+ * file I/O or formatting. When the buffer is full, records below WARNING are dropped rather than
+ * blocking the caller; warnings and errors wait for space. {@link #close()} drains what is left and
+ * writes a summary of written and dropped records.
+ */
+public class AsyncLogHandler extends Handler {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_FLUSH_MILLIS = 500;
+
+    private final Handler delegate;
+    private final LogRecord[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Thread writer;
+
+    private int head;
+    private int size;
+    private long written;
+    private long dropped;
+    private boolean closed;
+
+    public AsyncLogHandler(Handler delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    public AsyncLogHandler(Handler delegate, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, was " + capacity);
+        }
+        this.delegate = delegate;
+        this.ring = new LogRecord[capacity];
+        this.writer = new Thread(this::drainLoop, "async-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        // Source class and method are inferred from the calling thread's stack, so resolve them here.
+        record.getSourceClassName();
+
+        lock.lock();
+        try {
+            while (!closed && size == ring.length && record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed || size == ring.length) {
+                dropped++;
+                return;
+            }
+            ring[(head + size) % ring.length] = record;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        LogRecord summary = new LogRecord(Level.INFO, "Async logging summary: {0} messages written, {1} dropped.");
+        summary.setParameters(new Object[]{getWrittenCount(), getDroppedCount()});
+        summary.setLoggerName(GlobalLogger.class.getName());
+        summary.setSourceClassName(AsyncLogHandler.class.getName());
+        summary.setSourceMethodName("close");
+        delegate.publish(summary);
+        delegate.flush();
+        delegate.close();
+    }
+
+    public long getWrittenCount() {
+        lock.lock();
+        try {
+            return written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainLoop() {
+        LogRecord[] batch = new LogRecord[Math.min(ring.length, 256)];
+        boolean unflushed = false;
+        while (true) {
+            int count;
+            boolean idle = false;
+            boolean finished;
+            lock.lock();
+            try {
+                if (size == 0 && !closed) {
+                    idle = !notEmpty.await(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS) && size == 0;
+                }
+                count = Math.min(size, batch.length);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = ring[head];
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                }
+                size -= count;
+                finished = closed && size == 0;
+                if (count > 0) {
+                    notFull.signalAll();
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+                notFull.signalAll();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < count; i++) {
+                try {
+                    delegate.publish(batch[i]);
+                } catch (RuntimeException e) {
+                    reportError("Failed to write log record", e, ErrorManager.WRITE_FAILURE);
+                }
+                batch[i] = null;
+            }
+
+            lock.lock();
+            try {
+                written += count;
+            } finally {
+                lock.unlock();
+            }
+
+            unflushed |= count > 0;
+            if (unflushed && (finished || idle)) {
+                delegate.flush();
+                unflushed = false;
+            }
+            if (finished) {
+                return;
+            }
+        }
+    }
+}
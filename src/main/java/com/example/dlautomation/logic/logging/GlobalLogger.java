@@ -1,31 +1,88 @@
 package com.example.dlautomation.logic.logging;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.*;
 
 public class GlobalLogger {
 
+    public static final String READERS = "readers";
+    public static final String PROCESSING = "processing";
+    public static final String EXCEL = "excel";
+    public static final String CACHE = "cache";
+
+    private static final String LEVEL_PROPERTY = "dlautomation.log.level";
+    private static final String ASYNC_PROPERTY = "dlautomation.log.async";
+    private static final String CAPACITY_PROPERTY = "dlautomation.log.bufferSize";
+
     private static final Logger logger = Logger.getLogger(GlobalLogger.class.getName());
 
-    public static void initialize(String logFilePath) throws IOException {
+    // java.util.logging only keeps weak references, which would lose levels set before first use.
+    private static final Map<String, Logger> subsystemLoggers = new ConcurrentHashMap<>();
+
+    public static synchronized void initialize(String logFilePath) throws IOException {
         for (Handler handler : logger.getHandlers()) {
             logger.removeHandler(handler);
+            handler.close();
         }
 
         FileHandler fileHandler = new FileHandler(logFilePath, true);
         fileHandler.setFormatter(new SimpleFormatter());
-        logger.addHandler(fileHandler);
+        if (Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY, "true"))) {
+            logger.addHandler(new AsyncLogHandler(fileHandler,
+                    Integer.getInteger(CAPACITY_PROPERTY, AsyncLogHandler.DEFAULT_CAPACITY)));
+        } else {
+            logger.addHandler(fileHandler);
+        }
 
-        logger.setLevel(Level.ALL);
+        logger.setLevel(Level.parse(System.getProperty(LEVEL_PROPERTY, "INFO")));
+        applySubsystemLevels(System.getProperties());
 
         Logger rootLogger = Logger.getLogger("");
-        Handler[] handlers = rootLogger.getHandlers();
-        if (handlers[0] instanceof ConsoleHandler) {
-            rootLogger.removeHandler(handlers[0]);
+        for (Handler handler : rootLogger.getHandlers()) {
+            if (handler instanceof ConsoleHandler) {
+                rootLogger.removeHandler(handler);
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the handlers, which for the asynchronous handler drains the buffer and
+     * writes the written/dropped summary.
+     */
+    public static synchronized void shutdown() {
+        for (Handler handler : logger.getHandlers()) {
+            logger.removeHandler(handler);
+            handler.close();
         }
     }
 
     public static Logger getLogger() {
         return logger;
     }
+
+    /**
+     * Returns the logger of one subsystem ({@link #READERS}, {@link #PROCESSING}, {@link #EXCEL},
+     * {@link #CACHE}). It writes through the global handlers, but its level can be set on its own with
+     * {@code -Ddlautomation.log.level.<subsystem>=FINER}, e.g. to trace every cell and run of the readers.
+     */
+    public static Logger getLogger(String subsystem) {
+        return subsystemLoggers.computeIfAbsent(subsystem,
+                name -> Logger.getLogger(GlobalLogger.class.getName() + "." + name));
+    }
+
+    public static void setLevel(String subsystem, Level level) {
+        getLogger(subsystem).setLevel(level);
+    }
+
+    private static void applySubsystemLevels(Properties properties) {
+        String prefix = LEVEL_PROPERTY + ".";
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                setLevel(name.substring(prefix.length()), Level.parse(properties.getProperty(name)));
+            }
+        }
+    }
 }
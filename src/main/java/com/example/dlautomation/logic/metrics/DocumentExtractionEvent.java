@@ -0,0 +1,37 @@
+package com.example.dlautomation.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.dlautomation.DocumentExtraction")
+@Label("Document Extraction")
+@Category("DLAutomation")
+class DocumentExtractionEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Reader")
+    String reader;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Tables")
+    int tables;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Runs")
+    int runs;
+
+    @Label("Changes")
+    int changes;
+}
@@ -0,0 +1,79 @@
+package com.example.dlautomation.logic.metrics;
+
+public class DocumentMetrics {
+
+    public enum Outcome {
+        EXTRACTED, CACHED, DUPLICATE, SKIPPED, FAILED
+    }
+
+    private final String path;
+    private final long bytes;
+    private final String reader;
+    private final Outcome outcome;
+    private final long totalNanos;
+    private final long openNanos;
+    private final long scanNanos;
+    private final int tables;
+    private final int rows;
+    private final int runs;
+    private final int changes;
+
+    public DocumentMetrics(String path, long bytes, String reader, Outcome outcome, long totalNanos, long openNanos,
+                           long scanNanos, int tables, int rows, int runs, int changes) {
+        this.path = path;
+        this.bytes = bytes;
+        this.reader = reader;
+        this.outcome = outcome;
+        this.totalNanos = totalNanos;
+        this.openNanos = openNanos;
+        this.scanNanos = scanNanos;
+        this.tables = tables;
+        this.rows = rows;
+        this.runs = runs;
+        this.changes = changes;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public String getReader() {
+        return reader;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    public long getScanNanos() {
+        return scanNanos;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.dlautomation.logic.metrics;
+
+public enum Phase {
+    DISCOVERY("discovery"),
+    CACHE_LOAD("cacheLoad"),
+    EXTRACTION("extraction"),
+    WRITE("write"),
+    CACHE_SAVE("cacheSave");
+
+    private final String reportName;
+
+    Phase(String reportName) {
+        this.reportName = reportName;
+    }
+
+    public String getReportName() {
+        return reportName;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.dlautomation.logic.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.dlautomation.Phase")
+@Label("Processing Phase")
+@Category("DLAutomation")
+class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+}
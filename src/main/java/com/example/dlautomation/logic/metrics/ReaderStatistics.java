@@ -0,0 +1,53 @@
+package com.example.dlautomation.logic.metrics;
+
+/**
+ * Counters one reader fills in while extracting a single document. Not thread-safe; each reader
+ * instance handles one document on one thread.
+ */
+public class ReaderStatistics {
+    private long openNanos;
+    private long scanNanos;
+    private int tables;
+    private int rows;
+    private int runs;
+
+    public void recordOpen(long nanos) {
+        openNanos += nanos;
+    }
+
+    public void recordScan(long nanos) {
+        scanNanos += nanos;
+    }
+
+    public void tableVisited() {
+        tables++;
+    }
+
+    public void rowVisited() {
+        rows++;
+    }
+
+    public void runsVisited(int count) {
+        runs += count;
+    }
+
+    public long getOpenNanos() {
+        return openNanos;
+    }
+
+    public long getScanNanos() {
+        return scanNanos;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.dlautomation.logic.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-document and per-phase timings of one processing run. Safe to use from the extraction
+ * threads. Every document and phase is also emitted as a JFR event, so a recording started with
+ * {@code -XX:StartFlightRecording} lines the run up with GC and CPU samples.
+ */
+public class RunMetrics {
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentLinkedQueue<DocumentMetrics> documents = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<QuarantinedDocument> quarantined = new ConcurrentLinkedQueue<>();
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+
+    public RunMetrics() {
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    public PhaseTimer startPhase(Phase phase) {
+        return new PhaseTimer(phase);
+    }
+
+    public DocumentTimer startDocument(String path, long bytes) {
+        return new DocumentTimer(path, bytes);
+    }
+
+    /**
+     * Starts a second attempt at a document; the metrics of the first attempt are dropped, so the
+     * document is counted once, with the outcome of its last attempt.
+     */
+    public DocumentTimer restartDocument(String path, long bytes) {
+        documents.removeIf(document -> document.getPath().equals(path));
+        return startDocument(path, bytes);
+    }
+
+    public QuarantinedDocument quarantine(String path, String reason) {
+        QuarantinedDocument document = new QuarantinedDocument(path, reason);
+        quarantined.add(document);
+        return document;
+    }
+
+    public List<QuarantinedDocument> getQuarantined() {
+        return new ArrayList<>(quarantined);
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public List<DocumentMetrics> getDocuments() {
+        return new ArrayList<>(documents);
+    }
+
+    public class PhaseTimer implements AutoCloseable {
+        private final Phase phase;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long start;
+
+        private PhaseTimer(Phase phase) {
+            this.phase = phase;
+            event.begin();
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            phaseNanos.get(phase).add(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.phase = phase.getReportName();
+                event.commit();
+            }
+        }
+    }
+
+    public class DocumentTimer {
+        private final String path;
+        private final long bytes;
+        private final DocumentExtractionEvent event = new DocumentExtractionEvent();
+        private final long start;
+
+        private DocumentTimer(String path, long bytes) {
+            this.path = path;
+            this.bytes = bytes;
+            event.begin();
+            start = System.nanoTime();
+        }
+
+        public void cached(int changes) {
+            finish("cache", DocumentMetrics.Outcome.CACHED, new ReaderStatistics(), changes);
+        }
+
+        /**
+         * The document has the same content as another one of this run, whose extraction it reuses.
+         */
+        public void duplicate(int changes) {
+            finish("duplicate", DocumentMetrics.Outcome.DUPLICATE, new ReaderStatistics(), changes);
+        }
+
+        /**
+         * The pre-scan found no red run, so the document was not parsed.
+         */
+        public void skipped() {
+            finish("prescan", DocumentMetrics.Outcome.SKIPPED, new ReaderStatistics(), 0);
+        }
+
+        public void extracted(String reader, ReaderStatistics statistics, int changes) {
+            finish(reader, DocumentMetrics.Outcome.EXTRACTED, statistics, changes);
+        }
+
+        public void failed(String reader, ReaderStatistics statistics) {
+            finish(reader, DocumentMetrics.Outcome.FAILED, statistics, 0);
+        }
+
+        private void finish(String reader, DocumentMetrics.Outcome outcome, ReaderStatistics statistics, int changes) {
+            long totalNanos = System.nanoTime() - start;
+            documents.add(new DocumentMetrics(path, bytes, reader, outcome, totalNanos, statistics.getOpenNanos(),
+                    statistics.getScanNanos(), statistics.getTables(), statistics.getRows(), statistics.getRuns(), changes));
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.bytes = bytes;
+                event.reader = reader;
+                event.outcome = outcome.name();
+                event.tables = statistics.getTables();
+                event.rows = statistics.getRows();
+                event.runs = statistics.getRuns();
+                event.changes = changes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * A document whose first extraction failed or exceeded its limits, and how its retry went.
+     */
+    public static class QuarantinedDocument {
+        private final String path;
+        private final String reason;
+        private volatile boolean retried;
+        private volatile boolean recovered;
+        private volatile String retryReason;
+
+        private QuarantinedDocument(String path, String reason) {
+            this.path = path;
+            this.reason = reason;
+        }
+
+        public void retried(boolean recovered, String retryReason) {
+            this.retried = true;
+            this.recovered = recovered;
+            this.retryReason = retryReason;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public boolean isRetried() {
+            return retried;
+        }
+
+        public boolean isRecovered() {
+            return recovered;
+        }
+
+        public String getRetryReason() {
+            return retryReason;
+        }
+    }
+}
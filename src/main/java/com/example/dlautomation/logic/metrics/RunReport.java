@@ -0,0 +1,177 @@
+package com.example.dlautomation.logic.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * Writes the metrics of a run as JSON: totals, phase times, percentiles of the per-document times, the
+ * slowest documents and the quarantined ones. Times are in milliseconds.
+ */
+public class RunReport {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 100};
+
+    public static void write(RunMetrics metrics, Path reportFile, int slowestCount) throws IOException {
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            out.write(toJson(metrics, slowestCount));
+        }
+    }
+
+    public static String toJson(RunMetrics metrics, int slowestCount) {
+        List<DocumentMetrics> documents = metrics.getDocuments();
+        StringBuilder json = new StringBuilder(1024);
+
+        json.append("{\n");
+        json.append("  \"startedAt\": ").append(quote(metrics.getStartedAt().toString())).append(",\n");
+        json.append("  \"elapsedMillis\": ").append(millis(metrics.getElapsedNanos())).append(",\n");
+        json.append("  \"documents\": ").append(documents.size()).append(",\n");
+        for (DocumentMetrics.Outcome outcome : DocumentMetrics.Outcome.values()) {
+            long count = documents.stream().filter(d -> d.getOutcome() == outcome).count();
+            json.append("  \"").append(outcome.name().toLowerCase(Locale.ROOT)).append("Documents\": ").append(count).append(",\n");
+        }
+        // Share of the documents the pre-scan looked at that it did not need to parse.
+        long skipped = documents.stream().filter(d -> d.getOutcome() == DocumentMetrics.Outcome.SKIPPED).count();
+        long scanned = documents.stream()
+                .filter(d -> d.getOutcome() != DocumentMetrics.Outcome.CACHED
+                        && d.getOutcome() != DocumentMetrics.Outcome.DUPLICATE)
+                .count();
+        json.append("  \"prescanSkipRate\": ")
+                .append(String.format(Locale.ROOT, "%.3f", scanned > 0 ? (double) skipped / scanned : 0.0)).append(",\n");
+        json.append("  \"bytes\": ").append(sum(documents, DocumentMetrics::getBytes)).append(",\n");
+        json.append("  \"tables\": ").append(sum(documents, DocumentMetrics::getTables)).append(",\n");
+        json.append("  \"rows\": ").append(sum(documents, DocumentMetrics::getRows)).append(",\n");
+        json.append("  \"runs\": ").append(sum(documents, DocumentMetrics::getRuns)).append(",\n");
+        json.append("  \"changes\": ").append(sum(documents, DocumentMetrics::getChanges)).append(",\n");
+
+        // Open and scan are summed over all extraction threads, the phases are wall-clock time.
+        json.append("  \"phasesMillis\": {");
+        for (Phase phase : Phase.values()) {
+            json.append("\"").append(phase.getReportName()).append("\": ").append(millis(metrics.getPhaseNanos(phase))).append(", ");
+        }
+        json.append("\"open\": ").append(millis(sum(documents, DocumentMetrics::getOpenNanos))).append(", ");
+        json.append("\"scan\": ").append(millis(sum(documents, DocumentMetrics::getScanNanos))).append("},\n");
+
+        List<DocumentMetrics> extracted = documents.stream()
+                .filter(d -> d.getOutcome() != DocumentMetrics.Outcome.CACHED
+                        && d.getOutcome() != DocumentMetrics.Outcome.DUPLICATE
+                        && d.getOutcome() != DocumentMetrics.Outcome.SKIPPED)
+                .toList();
+        json.append("  \"percentilesMillis\": {\n");
+        appendPercentiles(json, "total", extracted, DocumentMetrics::getTotalNanos);
+        json.append(",\n");
+        appendPercentiles(json, "open", extracted, DocumentMetrics::getOpenNanos);
+        json.append(",\n");
+        appendPercentiles(json, "scan", extracted, DocumentMetrics::getScanNanos);
+        json.append("\n  },\n");
+
+        List<DocumentMetrics> slowest = documents.stream()
+                .sorted(Comparator.comparingLong(DocumentMetrics::getTotalNanos).reversed())
+                .limit(slowestCount)
+                .toList();
+        json.append("  \"slowestDocuments\": [");
+        for (int i = 0; i < slowest.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            appendDocument(json, slowest.get(i));
+        }
+        json.append(slowest.isEmpty() ? "],\n" : "\n  ],\n");
+
+        List<RunMetrics.QuarantinedDocument> quarantined = metrics.getQuarantined();
+        json.append("  \"quarantinedDocuments\": [");
+        for (int i = 0; i < quarantined.size(); i++) {
+            RunMetrics.QuarantinedDocument document = quarantined.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"path\": ").append(quote(document.getPath()))
+                    .append(", \"reason\": ").append(quote(document.getReason()))
+                    .append(", \"retried\": ").append(document.isRetried())
+                    .append(", \"recovered\": ").append(document.isRecovered())
+                    .append(", \"retryReason\": ").append(quote(document.getRetryReason()))
+                    .append("}");
+        }
+        json.append(quarantined.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder json, String name, List<DocumentMetrics> documents,
+                                          ToLongFunction<DocumentMetrics> value) {
+        long[] values = documents.stream().mapToLong(value).toArray();
+        Arrays.sort(values);
+        json.append("    ").append(quote(name)).append(": {");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            String label = PERCENTILES[i] == 100 ? "max" : "p" + (int) PERCENTILES[i];
+            json.append(quote(label)).append(": ").append(millis(percentile(values, PERCENTILES[i])));
+        }
+        json.append("}");
+    }
+
+    // Nearest-rank percentile of sorted values.
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static void appendDocument(StringBuilder json, DocumentMetrics document) {
+        json.append("    {\"path\": ").append(quote(document.getPath()))
+                .append(", \"bytes\": ").append(document.getBytes())
+                .append(", \"reader\": ").append(quote(document.getReader()))
+                .append(", \"outcome\": ").append(quote(document.getOutcome().name()))
+                .append(", \"totalMillis\": ").append(millis(document.getTotalNanos()))
+                .append(", \"openMillis\": ").append(millis(document.getOpenNanos()))
+                .append(", \"scanMillis\": ").append(millis(document.getScanNanos()))
+                .append(", \"tables\": ").append(document.getTables())
+                .append(", \"rows\": ").append(document.getRows())
+                .append(", \"runs\": ").append(document.getRuns())
+                .append(", \"changes\": ").append(document.getChanges())
+                .append("}");
+    }
+
+    private static long sum(List<DocumentMetrics> documents, ToLongFunction<DocumentMetrics> value) {
+        return documents.stream().mapToLong(value).sum();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -19,7 +19,20 @@ public class ChangeInfo {
         this.mappingName = mappingName;
         this.isFullyRed = isFullyRed;
         this.logik = logik;
-        this.wholeString = wholeString;
+        // Fully red cells repeat the change text; keep a single copy of it.
+        this.wholeString = change != null && change.equals(wholeString) ? change : wholeString;
+    }
+
+    /**
+     * Names this change after {@code mappingName} and replaces its repeated strings by their shared
+     * instances. Only for changes that are not referenced elsewhere yet, e.g. freshly extracted or decoded.
+     */
+    void share(ChangeInterner strings, String mappingName) {
+        this.tableName = strings.intern(tableName);
+        this.changeNumber = strings.intern(changeNumber);
+        this.releasestand = strings.intern(releasestand);
+        this.mappingName = strings.intern(mappingName);
+        this.logik = strings.intern(logik);
     }
 
     public String getTableName() {
@@ -0,0 +1,88 @@
+package com.example.dlautomation.logic.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChangeInfoSerializer {
+
+    private ChangeInfoSerializer() {
+    }
+
+    public static void write(DataOutput out, ChangeInfo change) throws IOException {
+        writeString(out, change.getTableName());
+        writeString(out, change.getChangeNumber());
+        writeString(out, change.getChange());
+        writeString(out, change.getReleasestand());
+        writeString(out, change.getMappingName());
+        out.writeBoolean(change.isFullyRed());
+        writeString(out, change.getLogik());
+        writeString(out, change.getWholeString());
+    }
+
+    public static ChangeInfo read(DataInput in) throws IOException {
+        String tableName = readString(in);
+        String changeNumber = readString(in);
+        String change = readString(in);
+        String releasestand = readString(in);
+        String mappingName = readString(in);
+        boolean isFullyRed = in.readBoolean();
+        String logik = readString(in);
+        String wholeString = readString(in);
+        return new ChangeInfo(tableName, changeNumber, change, releasestand, mappingName, isFullyRed, logik, wholeString);
+    }
+
+    public static byte[] toBytes(DocumentExtraction extraction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, extraction.getTableName());
+            writeString(out, extraction.getReleasestand());
+            List<ChangeInfo> changes = extraction.getChanges();
+            out.writeInt(changes.size());
+            for (ChangeInfo change : changes) {
+                write(out, change);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DocumentExtraction fromBytes(byte[] extraction) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(extraction));
+        String tableName = readString(in);
+        String releasestand = readString(in);
+        int changeCount = in.readInt();
+        List<ChangeInfo> changes = new ArrayList<>(changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            changes.add(read(in));
+        }
+        return new DocumentExtraction(tableName, releasestand, changes);
+    }
+
+    // Length-prefixed UTF-8 instead of writeUTF, which is capped at 64 KB; -1 encodes null.
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.dlautomation.logic.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one instance of the strings that repeat across the changes of a run: table names,
+ * Releasestand, mapping names, change numbers and the Logik markers. The change texts themselves are
+ * left alone; they are mostly distinct.
+ */
+class ChangeInterner {
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
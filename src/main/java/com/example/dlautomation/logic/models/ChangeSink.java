@@ -0,0 +1,25 @@
+package com.example.dlautomation.logic.models;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Destination for extracted changes. Changes arrive one document at a time in discovery order;
+ * {@link #close()} completes the output and {@link #discard()} abandons it without leaving a file.
+ */
+public interface ChangeSink extends Closeable {
+
+    void write(ChangeInfo change) throws IOException;
+
+    /**
+     * Writes the changes of one document.
+     */
+    default void writeAll(Collection<ChangeInfo> changes) throws IOException {
+        for (ChangeInfo change : changes) {
+            write(change);
+        }
+    }
+
+    void discard() throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.example.dlautomation.logic.models;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hands every document's changes to several sinks, so one extraction produces all output formats.
+ */
+public class CompositeChangeSink implements ChangeSink {
+
+    private final List<ChangeSink> sinks;
+
+    public CompositeChangeSink(List<ChangeSink> sinks) {
+        this.sinks = List.copyOf(sinks);
+    }
+
+    @Override
+    public void write(ChangeInfo change) throws IOException {
+        for (ChangeSink sink : sinks) {
+            sink.write(change);
+        }
+    }
+
+    @Override
+    public void writeAll(Collection<ChangeInfo> changes) throws IOException {
+        for (ChangeSink sink : sinks) {
+            sink.writeAll(changes);
+        }
+    }
+
+    // Every sink is closed even if an earlier one fails; the first failure is rethrown.
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ChangeSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void discard() throws IOException {
+        IOException failure = null;
+        for (ChangeSink sink : sinks) {
+            try {
+                sink.discard();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
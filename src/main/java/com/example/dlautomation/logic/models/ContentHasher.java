@@ -0,0 +1,67 @@
+package com.example.dlautomation.logic.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
+
+/**
+ * Content hashes. {@link #hash(Path)} is a fast, non-cryptographic CRC32C (hardware accelerated on
+ * current JVMs) that the extraction cache uses only to tell a changed document from an unchanged one.
+ * Identifying documents by content, as the duplicate detection does, uses the SHA-256
+ * {@link #digest(byte[])}. The FNV-1a helpers fingerprint small values such as rules and rows.
+ */
+public class ContentHasher {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ContentHasher() {
+    }
+
+    public static long hash(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Continues a 64-bit FNV-1a hash, started at {@link #FNV_OFFSET_BASIS}, over the UTF-16 chars of
+     * {@code value}. The terminator lies outside the char range, so ("ab", "c") and ("a", "bc") hash
+     * differently, and null differs from "".
+     */
+    public static long fnv1a(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ (value != null ? 0x10000 : 0x20000)) * FNV_PRIME;
+    }
+
+    public static long fnv1a(long hash, boolean value) {
+        return (hash ^ (value ? 1 : 2)) * FNV_PRIME;
+    }
+
+    /**
+     * SHA-256 of the content, for identifying documents by content alone.
+     */
+    public static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
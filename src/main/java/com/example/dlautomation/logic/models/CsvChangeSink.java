@@ -0,0 +1,72 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes changes as RFC 4180 CSV in UTF-8, one row per change with the workbook columns plus
+ * "Komplett rot", which says on which workbook sheet the change would be.
+ */
+public class CsvChangeSink extends TextChangeSink {
+
+    private static final String[] HEADER = {"Tabellenname", "Feldname", "Änderung", "Releasestand", "Logik",
+            "Mappingname", "Ganze Reihe", "Komplett rot"};
+
+    public CsvChangeSink(Path file, RunMetrics metrics) throws IOException {
+        super(file, metrics, "CSV");
+        for (int i = 0; i < HEADER.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(HEADER[i]);
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void write(ChangeInfo change) throws IOException {
+        writeField(change.getTableName());
+        out.write(',');
+        writeField(change.getChangeNumber());
+        out.write(',');
+        writeField(change.getChange());
+        out.write(',');
+        writeField(change.getReleasestand());
+        out.write(',');
+        writeField(change.getLogik());
+        out.write(',');
+        writeField(change.getMappingName());
+        out.write(',');
+        writeField(change.getWholeString());
+        out.write(',');
+        out.write(change.isFullyRed() ? "true" : "false");
+        out.write("\r\n");
+    }
+
+    // Quotes only fields that need it, doubling embedded quotes.
+    private void writeField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.cache.ChangeIndex;
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the run's changes with the previous run through a {@link ChangeIndex} and writes only the
+ * differences: a workbook with the added and the removed changes and a summary sheet. Closing the sink
+ * also saves this run's changes as the index for the next run.
+ * <p>
+ * A document that could not be read this time contributes no changes, so its previous changes are
+ * listed as removed.
+ */
+public class DeltaChangeSink implements ChangeSink {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.EXCEL);
+
+    private final Path file;
+    private final ChangeIndex index;
+    private final RunMetrics metrics;
+    private final SXSSFWorkbook workbook;
+    private final Sheet summarySheet;
+    private final Sheet addedSheet;
+    private final Sheet removedSheet;
+    private int addedRowNum = 1;
+
+    public DeltaChangeSink(Path file, ChangeIndex index, RunMetrics metrics) {
+        this.file = file;
+        this.index = index;
+        this.metrics = metrics;
+        this.workbook = new SXSSFWorkbook(null, ExcelStreamWriter.DEFAULT_ROW_WINDOW, true);
+        this.summarySheet = workbook.createSheet("Übersicht");
+        this.addedSheet = workbook.createSheet("Neu");
+        this.removedSheet = workbook.createSheet("Entfernt");
+        createHeaderRow(addedSheet);
+        createHeaderRow(removedSheet);
+        logger.log(Level.INFO, "Writing the changes since the previous run to {0}", file);
+    }
+
+    /**
+     * The delta workbook next to {@code outputFile}: out.xlsx becomes out.delta.xlsx.
+     */
+    public static Path resolve(Path outputFile) {
+        String name = outputFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return outputFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".delta.xlsx");
+    }
+
+    @Override
+    public void write(ChangeInfo change) throws IOException {
+        if (!index.record(change)) {
+            createDataRow(addedSheet.createRow(addedRowNum++), change);
+        }
+    }
+
+    @Override
+    public void writeAll(Collection<ChangeInfo> changes) throws IOException {
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE)) {
+            for (ChangeInfo change : changes) {
+                write(change);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        int added = addedRowNum - 1;
+        int removed;
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE)) {
+            int[] rowNum = {1};
+            removed = index.forEachRemoved(change -> createDataRow(removedSheet.createRow(rowNum[0]++), change));
+            writeSummary(added, removed);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        } catch (IOException | RuntimeException e) {
+            index.discard();
+            throw e;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        index.commit();
+        logger.log(Level.INFO, "Delta workbook written to {0}: {1} added, {2} removed, {3} unchanged",
+                new Object[]{file, added, removed, index.getUnchangedCount()});
+    }
+
+    /**
+     * Closes the sink without creating the delta workbook; the previous index stays in place.
+     */
+    @Override
+    public void discard() throws IOException {
+        try {
+            workbook.dispose();
+            workbook.close();
+        } finally {
+            index.discard();
+        }
+        logger.log(Level.INFO, "Delta output discarded: {0}", file);
+    }
+
+    private void writeSummary(int added, int removed) {
+        String comparedWith = index.hasPrevious()
+                ? "Vorheriger Lauf"
+                : "Kein vorheriger Lauf, alle Änderungen sind neu";
+        Object[][] rows = {
+                {"Verglichen mit", comparedWith},
+                {"Neu", added},
+                {"Entfernt", removed},
+                {"Unverändert", index.getUnchangedCount()},
+        };
+        for (int i = 0; i < rows.length; i++) {
+            Row row = summarySheet.createRow(i);
+            row.createCell(0).setCellValue((String) rows[i][0]);
+            if (rows[i][1] instanceof Integer count) {
+                row.createCell(1).setCellValue(count);
+            } else {
+                row.createCell(1).setCellValue((String) rows[i][1]);
+            }
+        }
+        summarySheet.setColumnWidth(0, 18 * 256);
+        summarySheet.setColumnWidth(1, 48 * 256);
+    }
+
+    // The change workbook's columns plus the sheet the change belongs on there.
+    private static void createHeaderRow(Sheet sheet) {
+        ExcelStreamWriter.createHeaderRow(sheet);
+        sheet.getRow(0).createCell(7).setCellValue("Art");
+    }
+
+    private static void createDataRow(Row row, ChangeInfo change) {
+        ExcelStreamWriter.createDataRow(row, change);
+        row.createCell(7).setCellValue(change.isFullyRed() ? "Datenmodelländerung" : "Logikänderung");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds the mapping documents below a folder: .doc and .docx files, matched case-insensitively,
+ * without Word's "~$" lock files. Include and exclude globs are matched against the path relative to
+ * the folder, e.g. {@code Archiv/**} or {@code **.docx}; a directory matching an exclude glob is not
+ * entered.
+ */
+public class DocumentDiscovery {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    @FunctionalInterface
+    public interface PathHandler {
+        void handle(Path path) throws IOException;
+    }
+
+    private final Path root;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+
+    public DocumentDiscovery(Path root, List<String> includeGlobs, List<String> excludeGlobs) {
+        this.root = root.toAbsolutePath();
+        FileSystem fileSystem = this.root.getFileSystem();
+        this.includes = includeGlobs.stream().map(glob -> fileSystem.getPathMatcher("glob:" + glob)).toList();
+        this.excludes = excludeGlobs.stream().map(glob -> fileSystem.getPathMatcher("glob:" + glob)).toList();
+    }
+
+    public static boolean isDocument(Path path) {
+        String name = path.getFileName().toString();
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        return !name.startsWith("~$") && (lowerCaseName.endsWith(".doc") || lowerCaseName.endsWith(".docx"));
+    }
+
+    public boolean matches(Path document) {
+        if (!isDocument(document)) {
+            return false;
+        }
+        Path relative = root.relativize(document.toAbsolutePath());
+        if (isExcluded(relative)) {
+            return false;
+        }
+        return includes.isEmpty() || includes.stream().anyMatch(matcher -> matcher.matches(relative));
+    }
+
+    /**
+     * Walks the folder tree and hands every matching document to {@code documents} as soon as it is
+     * found. Unreadable files and directories are logged and skipped.
+     */
+    public int walk(PathHandler documents) throws IOException {
+        return walk(directory -> { }, documents);
+    }
+
+    public int walk(PathHandler directories, PathHandler documents) throws IOException {
+        int[] count = new int[1];
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && isExcluded(root.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.handle(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && matches(file)) {
+                    documents.handle(file);
+                    count[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.log(Level.WARNING, "Cannot read {0}: {1}", new Object[]{file, e.getMessage()});
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    private boolean isExcluded(Path relative) {
+        return excludes.stream().anyMatch(matcher -> matcher.matches(relative));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.dlautomation.logic.models;
+
+import java.util.List;
+
+public class DocumentExtraction {
+
+    /** The result for a document without red runs; table name and Releasestand are not looked up. */
+    public static final DocumentExtraction NO_CHANGES = new DocumentExtraction(null, null, List.of());
+
+    private String tableName;
+    private String releasestand;
+    private List<ChangeInfo> changes;
+
+    public DocumentExtraction(String tableName, String releasestand, List<ChangeInfo> changes) {
+        this.tableName = tableName;
+        this.releasestand = releasestand;
+        this.changes = changes;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getReleasestand() {
+        return releasestand;
+    }
+
+    public List<ChangeInfo> getChanges() {
+        return changes;
+    }
+}
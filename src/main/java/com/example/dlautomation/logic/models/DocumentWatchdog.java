@@ -0,0 +1,203 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs one document's extraction under a time limit and a limit on the bytes it allocates, so a
+ * corrupt or enormous document cannot stall the batch. The extraction runs on a worker thread while
+ * the caller waits; past a limit the worker is interrupted, which the readers notice at the next table
+ * row, and the caller gets an {@link IOException} right away. A worker stuck inside POI keeps running
+ * until POI returns, but nothing waits for it any more.
+ * <p>
+ * The allocation limit counts every byte the worker allocates, garbage included; it needs a JVM that
+ * reports per-thread allocation (HotSpot does) and is ignored otherwise.
+ */
+class DocumentWatchdog {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private static final long POLL_MILLIS = 100;
+
+    // Shared by all runs; idle workers end after a minute.
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "document-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final long timeoutMillis;
+    private final long maxAllocatedBytes;
+    private final int priority;
+    private final ExecutorService workers;
+
+    /**
+     * @param timeoutMillis     0 for no time limit
+     * @param maxAllocatedBytes 0 for no allocation limit
+     */
+    DocumentWatchdog(long timeoutMillis, long maxAllocatedBytes, int priority) {
+        this(timeoutMillis, maxAllocatedBytes, priority, WORKERS);
+    }
+
+    DocumentWatchdog(long timeoutMillis, long maxAllocatedBytes, int priority, ExecutorService workers) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxAllocatedBytes = THREADS != null ? maxAllocatedBytes : 0;
+        this.priority = priority;
+        this.workers = workers;
+    }
+
+    DocumentWatchdog(ProcessingOptions options) {
+        this(options.getDocumentTimeoutMillis(), options.getDocumentMaxAllocatedBytes(), Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Runs {@code task} for {@code docPath} and returns its result. {@code onWorkerExit} runs once the
+     * task has really ended, which after a timeout can be later than this method returns.
+     */
+    <T> T run(String docPath, Callable<T> task, Runnable onWorkerExit) throws IOException {
+        if (timeoutMillis == 0 && maxAllocatedBytes == 0 && priority == Thread.NORM_PRIORITY) {
+            try {
+                return task.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Extraction failed: " + docPath, e);
+            } finally {
+                onWorkerExit.run();
+            }
+        }
+
+        Worker<T> worker = new Worker<>(task, onWorkerExit, priority);
+        Future<T> future;
+        try {
+            future = workers.submit(worker);
+        } catch (RuntimeException e) {
+            onWorkerExit.run();
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                try {
+                    return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    String limit = exceededLimit(worker, start);
+                    if (limit != null) {
+                        cancel(worker, future);
+                        logger.log(Level.WARNING, "Gave up on {0}: {1}", new Object[]{docPath, limit});
+                        throw new IOException(limit);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            cancel(worker, future);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + docPath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Extraction failed: " + docPath, cause);
+        }
+    }
+
+    private static void cancel(Worker<?> worker, Future<?> future) {
+        future.cancel(true);
+        // A task cancelled before it started never runs its exit action.
+        if (worker.state.compareAndSet(Worker.NEW, Worker.DONE)) {
+            worker.onExit.run();
+        }
+    }
+
+    private String exceededLimit(Worker<?> worker, long start) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (timeoutMillis > 0 && elapsedMillis > timeoutMillis) {
+            return "Timed out after " + timeoutMillis / 1000.0 + " s";
+        }
+        if (maxAllocatedBytes > 0) {
+            long allocated = worker.allocatedBytes();
+            if (allocated > maxAllocatedBytes) {
+                return "Allocated " + allocated / (1024 * 1024) + " MB, more than the limit of "
+                        + maxAllocatedBytes / (1024 * 1024) + " MB";
+            }
+        }
+        return null;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    private static class Worker<T> implements Callable<T> {
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final Callable<T> task;
+        private final Runnable onExit;
+        private final int priority;
+        private volatile long threadId = -1;
+        private volatile long allocatedAtStart;
+
+        private Worker(Callable<T> task, Runnable onExit, int priority) {
+            this.task = task;
+            this.onExit = onExit;
+            this.priority = priority;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return null;
+            }
+            Thread thread = Thread.currentThread();
+            thread.setPriority(priority);
+            if (THREADS != null) {
+                allocatedAtStart = THREADS.getCurrentThreadAllocatedBytes();
+            }
+            threadId = thread.getId();
+            try {
+                return task.call();
+            } finally {
+                threadId = -1;
+                thread.setPriority(Thread.NORM_PRIORITY);
+                state.set(DONE);
+                onExit.run();
+            }
+        }
+
+        private long allocatedBytes() {
+            long id = threadId;
+            if (id < 0 || THREADS == null) {
+                return 0;
+            }
+            long allocated = THREADS.getThreadAllocatedBytes(id);
+            return allocated < 0 ? 0 : allocated - allocatedAtStart;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the two-sheet change workbook row by row. Only the last {@code rowWindow} rows of each sheet
+ * stay on the heap; older rows are flushed to temporary files and copied into the workbook on close.
+ */
+public class ExcelStreamWriter implements ChangeSink {
+
+    public static final int DEFAULT_ROW_WINDOW = 100;
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.EXCEL);
+
+    private final String filePath;
+    private final RunMetrics metrics;
+    private final SXSSFWorkbook workbook;
+    private final Sheet datenmodellanderungenSheet;
+    private final Sheet logikanderungenSheet;
+
+    private int datenmodellanderungenRowNum = 1;
+    private int logikanderungenRowNum = 1;
+
+    public ExcelStreamWriter(String filePath) {
+        this(filePath, DEFAULT_ROW_WINDOW, new RunMetrics());
+    }
+
+    public ExcelStreamWriter(String filePath, RunMetrics metrics) {
+        this(filePath, DEFAULT_ROW_WINDOW, metrics);
+    }
+
+    public ExcelStreamWriter(String filePath, int rowWindow, RunMetrics metrics) {
+        logger.log(Level.INFO, "Starting to write changes to Excel. File path: {0}", filePath);
+        this.filePath = filePath;
+        this.metrics = metrics;
+        this.workbook = new SXSSFWorkbook(null, rowWindow, true);
+
+        datenmodellanderungenSheet = workbook.createSheet("Datenmodelländerungen");
+        logikanderungenSheet = workbook.createSheet("Logikänderungen");
+
+        logger.log(Level.INFO, "Sheets created: Datenmodelländerungen and Logikänderungen.");
+
+        createHeaderRow(datenmodellanderungenSheet);
+        createHeaderRow(logikanderungenSheet);
+
+        logger.log(Level.INFO, "Header rows created in both sheets.");
+    }
+
+    @Override
+    public void write(ChangeInfo change) {
+        Row row;
+        if (change.isFullyRed()) {
+            row = datenmodellanderungenSheet.createRow(datenmodellanderungenRowNum++);
+            logger.log(Level.FINER, "Writing change to datenmodellanderungen sheet: {0}", change);
+        } else {
+            row = logikanderungenSheet.createRow(logikanderungenRowNum++);
+            logger.log(Level.FINER, "Writing change to logikanderungen sheet: {0}", change);
+        }
+
+        createDataRow(row, change);
+    }
+
+    @Override
+    public void writeAll(Collection<ChangeInfo> changes) {
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE)) {
+            for (ChangeInfo change : changes) {
+                write(change);
+            }
+        }
+    }
+
+    public int getRowCount() {
+        return datenmodellanderungenRowNum - 1 + logikanderungenRowNum - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE);
+             FileOutputStream fileOut = new FileOutputStream(filePath)) {
+            workbook.write(fileOut);
+            logger.log(Level.INFO, "Workbook written to file successfully. File path: {0}", filePath);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "IOException occurred while writing to Excel file.", e);
+            throw e;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        logger.log(Level.INFO, "Excel writing process completed.");
+    }
+
+    /**
+     * Closes the writer without creating the output file.
+     */
+    @Override
+    public void discard() throws IOException {
+        workbook.dispose();
+        workbook.close();
+        logger.log(Level.INFO, "Excel output discarded: {0}", filePath);
+    }
+
+    static void createHeaderRow(Sheet sheet) {
+
+        logger.log(Level.INFO, "Creating header row for sheet: {0}", sheet.getSheetName());
+
+        Row headerRow = sheet.createRow(0);
+        headerRow.createCell(0).setCellValue("Tabellenname");
+        headerRow.createCell(1).setCellValue("Feldname");
+        headerRow.createCell(2).setCellValue("Änderung");
+        headerRow.createCell(3).setCellValue("Releasestand");
+        headerRow.createCell(4).setCellValue("Logik");
+        headerRow.createCell(5).setCellValue("Mappingname");
+        headerRow.createCell(6).setCellValue("Ganze Reihe");
+
+        logger.log(Level.INFO, "Header row created successfully.");
+
+    }
+
+    static void createDataRow(Row row, ChangeInfo change) {
+
+        logger.log(Level.FINER, "Creating data row for change: {0}", change);
+
+        row.createCell(0).setCellValue(change.getTableName());
+        row.createCell(1).setCellValue(change.getChangeNumber());
+        row.createCell(2).setCellValue(change.getChange());
+        row.createCell(3).setCellValue(change.getReleasestand());
+        row.createCell(4).setCellValue(change.getLogik());
+        row.createCell(5).setCellValue(change.getMappingName());
+        row.createCell(6).setCellValue(change.getWholeString());
+
+        logger.log(Level.FINER, "Data row created successfully for change: {0}", change);
+    }
+}
@@ -0,0 +1,581 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.cache.ExtractionCache;
+import com.example.dlautomation.logic.cache.SpillBuffer;
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.ReaderStatistics;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import com.example.dlautomation.logic.readers.AbstractWordReader;
+import com.example.dlautomation.logic.readers.RedRunPrescan;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs documents through explicit stages connected by bounded queues:
+ * discover → read bytes → parse → filter → write. The documents come from a {@link DocumentSource},
+ * usually a {@link DocumentDiscovery} walking a folder, or a fixed list such as the documents
+ * {@link FolderWatcher} saw change. Reading is I/O-bound and parsing CPU-bound, so each
+ * has its own threads ({@link ProcessingOptions#getReaderThreads()}, {@link ProcessingOptions#getParallelism()},
+ * {@link ProcessingOptions#getFilterThreads()}); discovery runs on one thread and writing on the caller's.
+ * <p>
+ * Discovery hands documents on in windows of one queue capacity, largest first within each window, so
+ * a large document found late does not leave the other parse threads idle at the end; the output keeps
+ * the discovery order.
+ * <p>
+ * Full queues block the stage in front of them. In addition at most four queues' worth of documents
+ * are between discovery and the workbook at any time, including those waiting to be written in
+ * order, so memory is bounded by the queue capacity and not by the size of the corpus.
+ * <p>
+ * With {@link ProcessingOptions#isDeduplicateContent()} documents are identified by size and SHA-256
+ * after reading, and byte-identical copies (archive folders, duplicated releases) reuse the extraction
+ * of the first copy that reached the parse stage. Per distinct content only the key and the first
+ * path stay on the heap; the extraction is kept serialized in a {@link SpillBuffer}, which moves to a
+ * memory-mapped file past {@link ProcessingOptions#getChangeBufferHeapBytes()}, and is decoded again
+ * for each copy.
+ * <p>
+ * The parse threads only start a document when the process-wide {@link ParseAdmission} admits it, so a
+ * few very large documents are not parsed at the same time, also across pipelines running at once; an
+ * {@link OutOfMemoryError} while parsing fails that document and drops to one parse at a time.
+ * <p>
+ * Every parse runs under a {@link DocumentWatchdog}. Documents that fail or exceed its limits are
+ * quarantined instead of written; once all other documents are written each is retried once, and its
+ * changes, if any, are appended. Quarantined documents and the outcome of their retry are part of the
+ * run metrics.
+ */
+public class ExtractionPipeline {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private static final Item END = new Item(-1, null);
+
+    /**
+     * Hands every document to process to {@code documents} and returns how many there were.
+     */
+    @FunctionalInterface
+    public interface DocumentSource {
+        int walk(DocumentDiscovery.PathHandler documents) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface DocumentConsumer {
+        void accept(Path document, List<ChangeInfo> changes) throws IOException;
+    }
+
+    private final DocumentSource source;
+    private final ProcessingOptions options;
+    private final ExtractionCache cache;
+    private final RunMetrics metrics;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Map<ContentKey, SharedExtraction> extractionsByContent = new ConcurrentHashMap<>();
+    private final SpillBuffer sharedExtractions;
+    private final ParseAdmission admission = ParseAdmission.processWide();
+    private final long parseBudget;
+    private final ChangeInterner strings = new ChangeInterner();
+    private final DocumentWatchdog watchdog;
+    private final DocumentWatchdog retryWatchdog;
+
+    public ExtractionPipeline(DocumentSource source, ProcessingOptions options, ExtractionCache cache, RunMetrics metrics) {
+        this.source = source;
+        this.options = options;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.parseBudget = ParseAdmission.budget(options);
+        this.sharedExtractions = new SpillBuffer(options.getChangeBufferHeapBytes());
+        this.watchdog = new DocumentWatchdog(options);
+        this.retryWatchdog = new DocumentWatchdog(options.getDocumentTimeoutMillis() * 2,
+                options.getDocumentMaxAllocatedBytes(), Thread.MIN_PRIORITY);
+    }
+
+    /**
+     * Processes every discovered document and hands the filtered changes to {@code sink}, one list
+     * per document in discovery order, on the calling thread.
+     *
+     * @return the number of documents processed
+     */
+    public int run(ChangeSink sink) throws IOException {
+        return run((document, changes) -> sink.writeAll(changes));
+    }
+
+    /**
+     * Same as {@link #run(ChangeSink)}, but hands every document with its changes to {@code consumer}.
+     * Quarantined documents that are retried come last.
+     */
+    public int run(DocumentConsumer consumer) throws IOException {
+        int capacity = options.getQueueCapacity();
+        BlockingQueue<Item> discovered = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Item> read = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Item> parsed = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Item> filtered = new ArrayBlockingQueue<>(capacity);
+        Semaphore inFlight = new Semaphore(capacity * 4);
+
+        admission.join(options.getParallelism(), parseBudget);
+        startThread("pipeline-discover", () -> discover(discovered, inFlight));
+        startStage("pipeline-read", options.getReaderThreads(), discovered, read, this::readContent);
+        startStage("pipeline-parse", options.getParallelism(), read, parsed, this::parse);
+        startStage("pipeline-filter", options.getFilterThreads(), parsed, filtered, this::filter);
+
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.EXTRACTION)) {
+            return write(filtered, inFlight, consumer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting documents", e);
+        } finally {
+            threads.forEach(Thread::interrupt);
+            admission.leave(options.getParallelism());
+            extractionsByContent.clear();
+            sharedExtractions.close();
+        }
+    }
+
+    private void discover(BlockingQueue<Item> discovered, Semaphore inFlight) throws InterruptedException {
+        long[] sequence = new long[1];
+        int windowSize = options.getQueueCapacity();
+        List<Item> window = new ArrayList<>(windowSize);
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.DISCOVERY)) {
+            int totalFileCount = source.walk(path -> {
+                Item item = new Item(sequence[0]++, path);
+                item.size = sizeOf(path);
+                window.add(item);
+                if (window.size() == windowSize) {
+                    submitLargestFirst(window, discovered, inFlight);
+                }
+            });
+            submitLargestFirst(window, discovered, inFlight);
+            logger.log(Level.INFO, "Number of files found to process: {0}", totalFileCount);
+        } catch (InterruptedIOException e) {
+            return;
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+        discovered.put(END);
+    }
+
+    // The window is at most one queue capacity and a quarter of the in-flight permits, so the writer can
+    // always write every earlier window while discovery waits for permits.
+    private static void submitLargestFirst(List<Item> window, BlockingQueue<Item> discovered, Semaphore inFlight)
+            throws InterruptedIOException {
+        window.sort(Comparator.comparingLong((Item item) -> item.size).reversed());
+        try {
+            for (Item item : window) {
+                inFlight.acquire();
+                discovered.put(item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while searching for documents");
+        }
+        window.clear();
+    }
+
+    // An unreadable document sorts last; the read stage reports why.
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void readContent(Item item) {
+        String docPath = item.path.toString();
+        logger.log(Level.INFO, "Processing file: {0}", docPath);
+        try {
+            item.timer = startTimer(item, Files.size(item.path));
+            if (cache != null) {
+                item.extraction = cache.get(item.path);
+                if (item.extraction != null) {
+                    logger.log(Level.INFO, "Using cached extraction for file: {0}", docPath);
+                    return;
+                }
+            }
+            item.content = Files.readAllBytes(item.path);
+            if (options.isDeduplicateContent() && !item.retry) {
+                ContentKey key = new ContentKey(item.content.length, ContentHasher.digest(item.content));
+                item.shared = extractionsByContent.computeIfAbsent(key, k -> new SharedExtraction());
+            }
+        } catch (IOException e) {
+            item.failure = e;
+        }
+    }
+
+    private void parse(Item item) {
+        if (item.timer == null) {
+            item.timer = startTimer(item, 0);
+        }
+        if (item.failure != null) {
+            item.timer.failed("none", new ReaderStatistics());
+            return;
+        }
+        if (item.extraction != null) {
+            item.timer.cached(item.extraction.getChanges().size());
+            return;
+        }
+
+        if (item.shared == null) {
+            parseContent(item);
+            return;
+        }
+        if (!item.shared.claim(item.path)) {
+            reuse(item);
+            return;
+        }
+        // Identical documents wait for this result, so it must be completed whatever happens here.
+        try {
+            parseContent(item);
+        } finally {
+            item.content = null;
+            share(item);
+        }
+    }
+
+    private void parseContent(Item item) {
+        if (options.isRedPrescan() && !RedRunPrescan.mayContainRed(item.path.toString(), item.content)) {
+            skip(item);
+            return;
+        }
+
+        AbstractWordReader reader = FolderProcessor.createReader(item.path.toString(), options);
+        byte[] content = item.content;
+        long cost = ParseAdmission.estimateCost(item.path.toString(), content, options.isStreamingDocxReader());
+        try {
+            ParseAdmission.Permit permit = admission.acquire(cost, parseBudget, options.getDocumentTimeoutMillis());
+            // Releases the budget only when the reader has really stopped, even after a timeout; the
+            // slot is freed as soon as the watchdog returns, so a stuck reader does not block the rest.
+            CountDownLatch workerExited = new CountDownLatch(1);
+            item.workerExited = workerExited;
+            try {
+                item.extraction = (item.retry ? retryWatchdog : watchdog).run(item.path.toString(), () -> reader.extract(content),
+                        () -> {
+                            admission.release(permit);
+                            workerExited.countDown();
+                        });
+            } finally {
+                admission.abandon(permit);
+            }
+            if (cache != null) {
+                cache.put(item.path, item.extraction);
+            }
+            item.timer.extracted(reader.getClass().getSimpleName(), reader.getStatistics(), item.extraction.getChanges().size());
+        } catch (IOException e) {
+            item.failure = e;
+            item.timer.failed(reader.getClass().getSimpleName(), reader.getStatistics());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            item.failure = new InterruptedIOException("Interrupted while waiting to parse " + item.path);
+            item.timer.failed(reader.getClass().getSimpleName(), reader.getStatistics());
+        } catch (RuntimeException e) {
+            item.failure = e;
+            item.timer.failed(reader.getClass().getSimpleName(), reader.getStatistics());
+        } catch (OutOfMemoryError e) {
+            // The reader's objects are unreachable by now; fail this document, not the run.
+            admission.outOfMemory();
+            item.failure = new IOException("Not enough heap to parse " + item.path, e);
+            item.timer.failed(reader.getClass().getSimpleName(), reader.getStatistics());
+        } finally {
+            item.content = null;
+        }
+    }
+
+    private void skip(Item item) {
+        logger.log(Level.INFO, "No red runs, skipping file: {0}", item.path);
+        item.content = null;
+        item.extraction = DocumentExtraction.NO_CHANGES;
+        try {
+            if (cache != null) {
+                cache.put(item.path, item.extraction);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not cache extraction of " + item.path, e);
+        }
+        item.timer.skipped();
+    }
+
+    private void share(Item item) {
+        long handle = -1;
+        if (item.extraction != null && item.failure == null) {
+            try {
+                handle = sharedExtractions.append(ChangeInfoSerializer.toBytes(item.extraction));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not keep extraction of " + item.path + " for identical documents", e);
+            }
+        }
+        item.shared.result.complete(handle);
+    }
+
+    // The copy that claimed the content is inside parse() on another thread and completes the result
+    // there, before it waits on any queue, so waiting for it cannot deadlock the stages. Its admission
+    // wait and its parse are each bounded by the document timeout; the third one is headroom.
+    private void reuse(Item item) {
+        item.content = null;
+        DocumentExtraction extraction;
+        try {
+            long handle = awaitShared(item.shared, options.getDocumentTimeoutMillis() * 3);
+            if (handle < 0) {
+                throw new IOException("Extraction of identical document " + item.shared.firstPath + " failed");
+            }
+            extraction = ChangeInfoSerializer.fromBytes(sharedExtractions.read(handle));
+        } catch (IOException e) {
+            item.failure = e;
+            item.timer.failed("duplicate", new ReaderStatistics());
+            return;
+        }
+        logger.log(Level.INFO, "Same content as {0}, reusing its extraction for: {1}",
+                new Object[]{item.shared.firstPath, item.path});
+        item.extraction = extraction;
+        try {
+            if (cache != null) {
+                cache.put(item.path, extraction);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not cache extraction of " + item.path, e);
+        }
+        item.timer.duplicate(extraction.getChanges().size());
+    }
+
+    private static long awaitShared(SharedExtraction shared, long timeoutMillis) throws IOException {
+        try {
+            return timeoutMillis == 0 ? shared.result.get() : shared.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for identical document " + shared.firstPath);
+        } catch (TimeoutException e) {
+            throw new IOException("Timed out after " + timeoutMillis / 1000.0 + " s waiting for identical document "
+                    + shared.firstPath, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Extraction of identical document " + shared.firstPath + " failed", e.getCause());
+        }
+    }
+
+    private void filter(Item item) {
+        if (item.failure != null && isRetried(item)) {
+            logger.log(Level.WARNING, "Quarantined " + item.path + ", retrying it at the end", item.failure);
+            item.changes = Collections.emptyList();
+        } else if (item.failure != null) {
+            System.err.println("Error processing file " + item.path + ": " + item.failure.getMessage());
+            logger.log(Level.SEVERE, "Error processing file " + item.path, item.failure);
+            item.changes = Collections.emptyList();
+        } else {
+            item.changes = FolderProcessor.filterChanges(item.path.toFile(), item.extraction.getChanges(),
+                    options.getExtractionRules(), strings);
+        }
+        item.extraction = null;
+    }
+
+    // Results arrive in completion order and are held back until all earlier documents are written.
+    private int write(BlockingQueue<Item> filtered, Semaphore inFlight, DocumentConsumer consumer)
+            throws IOException, InterruptedException {
+        Map<Long, Item> waiting = new HashMap<>();
+        List<Item> quarantined = new ArrayList<>();
+        long nextSequence = 0;
+
+        for (Item item = takeResult(filtered); item != END; item = takeResult(filtered)) {
+            waiting.put(item.sequence, item);
+            for (Item next = waiting.remove(nextSequence); next != null; next = waiting.remove(nextSequence)) {
+                if (next.failure != null && isRetried(next)) {
+                    next.quarantine = metrics.quarantine(next.path.toString(), reason(next.failure));
+                    quarantined.add(next);
+                } else {
+                    consumer.accept(next.path, next.changes != null ? next.changes : Collections.emptyList());
+                }
+                nextSequence++;
+                inFlight.release();
+            }
+        }
+
+        checkFailure();
+        retryQuarantined(quarantined, consumer);
+        return (int) nextSequence;
+    }
+
+    // Runs after every other document, one at a time on the calling thread; the parse itself runs on a
+    // low-priority worker with twice the time limit.
+    private void retryQuarantined(List<Item> quarantined, DocumentConsumer consumer) throws IOException, InterruptedException {
+        if (quarantined.isEmpty()) {
+            return;
+        }
+        logger.log(Level.INFO, "Retrying {0} quarantined documents", quarantined.size());
+        long retryTimeoutMillis = options.getDocumentTimeoutMillis() * 2;
+        for (Item previous : quarantined) {
+            // A reader given up on may still be running; do not compete with it for CPU and heap.
+            if (previous.workerExited != null) {
+                if (retryTimeoutMillis == 0) {
+                    previous.workerExited.await();
+                } else {
+                    previous.workerExited.await(retryTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            Item item = new Item(previous.sequence, previous.path);
+            item.retry = true;
+            readContent(item);
+            parse(item);
+            filter(item);
+            previous.quarantine.retried(item.failure == null, item.failure != null ? reason(item.failure) : null);
+            if (item.failure == null) {
+                logger.log(Level.INFO, "Retry of quarantined document succeeded: {0}", item.path);
+            }
+            consumer.accept(item.path, item.changes);
+        }
+    }
+
+    private boolean isRetried(Item item) {
+        return options.isRetryFailedDocuments() && !item.retry;
+    }
+
+    private RunMetrics.DocumentTimer startTimer(Item item, long bytes) {
+        return item.retry
+                ? metrics.restartDocument(item.path.toString(), bytes)
+                : metrics.startDocument(item.path.toString(), bytes);
+    }
+
+    private static String reason(Exception failure) {
+        return failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+    }
+
+    // A stage thread that died cannot pass on the end marker, so the writer must not wait for it forever.
+    private Item takeResult(BlockingQueue<Item> filtered) throws IOException, InterruptedException {
+        while (true) {
+            Item item = filtered.poll(100, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+            checkFailure();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable error = failure.get();
+        if (error instanceof IOException ioException) {
+            throw ioException;
+        } else if (error != null) {
+            throw new IOException("Document pipeline failed", error);
+        }
+    }
+
+    private void startStage(String name, int threadCount, BlockingQueue<Item> input, BlockingQueue<Item> output,
+                            Consumer<Item> handler) {
+        AtomicInteger running = new AtomicInteger(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            startThread(name + "-" + (i + 1), () -> {
+                for (Item item = input.take(); item != END; item = input.take()) {
+                    try {
+                        handler.accept(item);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.SEVERE, "Unexpected error processing file " + item.path, e);
+                        item.failure = e;
+                    }
+                    output.put(item);
+                }
+                // Leave the marker for the other threads of this stage; the last one passes it on.
+                input.put(END);
+                if (running.decrementAndGet() == 0) {
+                    output.put(END);
+                }
+            });
+        }
+    }
+
+    private void startThread(String name, InterruptibleTask task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                logger.log(Level.SEVERE, "Pipeline thread " + Thread.currentThread().getName() + " failed", e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    @FunctionalInterface
+    private interface InterruptibleTask {
+        void run() throws InterruptedException;
+    }
+
+    private static class Item {
+        private final long sequence;
+        private final Path path;
+        private boolean retry;
+        private long size;
+        private volatile CountDownLatch workerExited;
+        private RunMetrics.QuarantinedDocument quarantine;
+        private RunMetrics.DocumentTimer timer;
+        private byte[] content;
+        private SharedExtraction shared;
+        private DocumentExtraction extraction;
+        private List<ChangeInfo> changes;
+        private Exception failure;
+
+        private Item(long sequence, Path path) {
+            this.sequence = sequence;
+            this.path = path;
+        }
+    }
+
+    // A 256-bit digest, so two different documents never share an extraction in practice.
+    private static class ContentKey {
+        private final long size;
+        private final byte[] digest;
+
+        private ContentKey(long size, byte[] digest) {
+            this.size = size;
+            this.digest = digest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ContentKey key && size == key.size && Arrays.equals(digest, key.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Arrays.hashCode(digest);
+        }
+    }
+
+    private static class SharedExtraction {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        // Handle of the extraction in sharedExtractions; -1 when the extraction failed.
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private volatile Path firstPath;
+
+        private boolean claim(Path path) {
+            if (!claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            firstPath = path;
+            return true;
+        }
+    }
+}
@@ -1,126 +1,175 @@
 package com.example.dlautomation.logic.models;
 
+import com.example.dlautomation.logic.cache.ChangeIndex;
+import com.example.dlautomation.logic.cache.ExtractionCache;
 import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.DocumentMetrics;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import com.example.dlautomation.logic.metrics.RunReport;
 import com.example.dlautomation.logic.readers.AbstractWordReader;
 import com.example.dlautomation.logic.readers.DocWordReader;
 import com.example.dlautomation.logic.readers.DocxWordReader;
+import com.example.dlautomation.logic.readers.ExtractionRules;
+import com.example.dlautomation.logic.readers.StaxDocxWordReader;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class FolderProcessor {
 
-    private static final Logger logger = GlobalLogger.getLogger();
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
 
-    public static void processFolder(String folderPath, String outputFilePath) throws IOException {
-
-        logger.log(Level.INFO, "Processing folder: {0}", folderPath);
-
-        File folder = new File(folderPath);
-        List<File> filesToProcess = new ArrayList<>();
-
-        int totalFileCount = collectFilesRecursively(folder, filesToProcess);
-
-        logger.log(Level.INFO, "Number of files found to process: {0}", totalFileCount);
-
-
-        if (!filesToProcess.isEmpty()) {
+    public static RunMetrics processFolder(String folderPath, String outputFilePath) throws IOException {
+        return processFolder(folderPath, outputFilePath, new ProcessingOptions());
+    }
 
-            logger.log(Level.INFO, "Number of files to process: {0}", filesToProcess.size());
+    public static RunMetrics processFolder(String folderPath, String outputFilePath, ProcessingOptions options) throws IOException {
 
-            List<ChangeInfo> allChanges = new ArrayList<>();
+        logger.log(Level.INFO, "Processing folder: {0}", folderPath);
+        RunMetrics metrics = new RunMetrics();
 
-            for (File file : filesToProcess) {
-                String docPath = file.getAbsolutePath();
-                logger.log(Level.INFO, "Processing file: {0}", docPath);
-                String mappingName = file.getName().substring(0, file.getName().lastIndexOf('.'));
+        DocumentDiscovery discovery = new DocumentDiscovery(Paths.get(folderPath), options.getIncludeGlobs(), options.getExcludeGlobs());
 
-                List<ChangeInfo> notFilteredChanges = getRedChangesWithTableName(docPath);
+        ExtractionCache cache = null;
+        if (options.getCacheFile() != null) {
+            try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.CACHE_LOAD)) {
+                cache = ExtractionCache.load(options.getCacheFile(), options.isVerifyContentHash(),
+                        options.getExtractionRules(), options.getChangeBufferHeapBytes());
+            }
+        }
 
-                List<ChangeInfo> changes = notFilteredChanges.stream()
-                        .filter(change -> !"Join-Bedingungen".equalsIgnoreCase(change.getChangeNumber()))
-                        .toList();
+        try {
+            logger.log(Level.INFO, "Writing changes to {0} as {1}", new Object[]{outputFilePath, options.getOutputFormats()});
+            ChangeSink sink = OutputFormat.createSinks(options.getOutputFormats(), options.getShardBy(), Paths.get(outputFilePath), metrics);
+            if (options.getChangeIndexFile() != null) {
+                sink = withDelta(sink, Paths.get(folderPath), Paths.get(outputFilePath), options, metrics);
+            }
+            int documentCount;
+            try {
+                documentCount = new ExtractionPipeline(discovery::walk, options, cache, metrics).run(sink);
+            } catch (IOException | RuntimeException e) {
+                sink.discard();
+                throw e;
+            }
 
-                for (ChangeInfo change : changes) {
-                    allChanges.add(new ChangeInfo(
-                            change.getTableName(),
-                            change.getChangeNumber(),
-                            change.getChange(),
-                            change.getReleasestand(),
-                            mappingName,
-                            change.isFullyRed(),
-                            change.getLogik(),
-                            change.getWholeString()
-                    ));
+            if (documentCount > 0) {
+                sink.close();
+                if (cache != null) {
+                    try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.CACHE_SAVE)) {
+                        cache.save();
+                    }
                 }
+                logger.log(Level.INFO, "Process completed successfully. Output file: {0}", outputFilePath);
+            } else {
+                sink.discard();
+                System.out.println("No documents found in the specified folder.");
+                logger.log(Level.WARNING, "No documents found in the specified folder: {0}", folderPath);
             }
-            logger.log(Level.INFO, "Writing changes to Excel file: {0}", outputFilePath);
-            ExcelUpdater.writeChangesToExcel(allChanges, outputFilePath);
-            logger.log(Level.INFO, "Process completed successfully. Output file: {0}", outputFilePath);
-        } else {
-            System.out.println("No documents found in the specified folder.");
-            logger.log(Level.WARNING, "No documents found in the specified folder: {0}", folderPath);
+        } finally {
+            if (cache != null) {
+                cache.close();
+            }
+        }
+
+        long duplicates = metrics.getDocuments().stream()
+                .filter(document -> document.getOutcome() == DocumentMetrics.Outcome.DUPLICATE)
+                .count();
+        if (duplicates > 0) {
+            logger.log(Level.INFO, "Skipped parsing {0} duplicate documents", duplicates);
+        }
+        for (RunMetrics.QuarantinedDocument quarantined : metrics.getQuarantined()) {
+            logger.log(quarantined.isRecovered() ? Level.INFO : Level.WARNING,
+                    "Quarantined {0} ({1}), retry {2}", new Object[]{quarantined.getPath(), quarantined.getReason(),
+                            quarantined.isRecovered() ? "succeeded" : "failed: " + quarantined.getRetryReason()});
+        }
+        logger.log(Level.INFO, "Run took {0} ms: discovery {1} ms, extraction {2} ms, write {3} ms",
+                new Object[]{toMillis(metrics.getElapsedNanos()), toMillis(metrics.getPhaseNanos(Phase.DISCOVERY)),
+                        toMillis(metrics.getPhaseNanos(Phase.EXTRACTION)), toMillis(metrics.getPhaseNanos(Phase.WRITE))});
+        if (options.getMetricsReport() != null) {
+            RunReport.write(metrics, options.getMetricsReport(), options.getSlowestDocumentCount());
+            logger.log(Level.INFO, "Metrics report written to: {0}", options.getMetricsReport());
         }
+        return metrics;
     }
 
-    private static int collectFilesRecursively(File folder, List<File> filesToProcess) {
-        File[] files = folder.listFiles();
-        int fileCount = 0;
-
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    fileCount += collectFilesRecursively(file, filesToProcess); // Recursively count files in subdirectories
-                } else if (file.isFile() && (file.getName().endsWith(".doc") || file.getName().endsWith(".docx"))) {
-                    filesToProcess.add(file);
-                    fileCount++;
-                }
+    private static ChangeSink withDelta(ChangeSink sink, Path folder, Path outputFile, ProcessingOptions options,
+                                        RunMetrics metrics) throws IOException {
+        // Runs over another folder or other globs are not compared with each other.
+        String scope = folder.toAbsolutePath().normalize() + "|" + String.join(";", options.getIncludeGlobs())
+                + "|" + String.join(";", options.getExcludeGlobs());
+        try {
+            ChangeIndex index;
+            try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.CACHE_LOAD)) {
+                index = ChangeIndex.open(options.getChangeIndexFile(), scope, options.getChangeBufferHeapBytes());
             }
+            return new CompositeChangeSink(List.of(sink, new DeltaChangeSink(DeltaChangeSink.resolve(outputFile), index, metrics)));
+        } catch (IOException | RuntimeException e) {
+            sink.discard();
+            throw e;
         }
-        return fileCount;
     }
 
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
 
-    private static List<ChangeInfo> getRedChangesWithTableName(String docPath) {
-        logger.log(Level.INFO, "Getting red changes from document: {0}", docPath);
-        AbstractWordReader reader;
-        String fileExtension = getFileExtension(docPath);
-
-        try {
-            if (".doc".equalsIgnoreCase(fileExtension)) {
-                reader = new DocWordReader(docPath);
-                logger.log(Level.INFO, "Using DocWordReader for file: {0}", docPath);
-            } else if (".docx".equalsIgnoreCase(fileExtension)) {
-                reader = new DocxWordReader(docPath);
-                logger.log(Level.INFO, "Using DocxWordReader for file: {0}", docPath);
-            } else {
-                logger.log(Level.SEVERE, "Unsupported file format: {0}", fileExtension);
-                throw new IllegalArgumentException("Unsupported file format: " + fileExtension);
+    /**
+     * Drops the rows whose change number the rules exclude ("Join-Bedingungen") and names the others
+     * after {@code file}. The changes are fresh from a reader or decoded for this document, so they are
+     * updated in place, including rows reused from an identical document with another name, and their
+     * repeated strings are shared through {@code strings}.
+     */
+    static List<ChangeInfo> filterChanges(File file, List<ChangeInfo> notFilteredChanges, ExtractionRules rules,
+                                          ChangeInterner strings) {
+        String mappingName = AbstractWordReader.mappingNameOf(file.getName());
+
+        List<ChangeInfo> changes = new ArrayList<>(notFilteredChanges.size());
+        for (ChangeInfo change : notFilteredChanges) {
+            if (rules.isExcludedChangeNumber(change.getChangeNumber())) {
+                continue;
             }
+            change.share(strings, mappingName);
+            changes.add(change);
+        }
+        return changes;
+    }
 
-            String tableName = reader.extractTableName();
-            String releasestand = reader.extractReleasestand();
-            return reader.getRedChanges(tableName, releasestand);
-        } catch (IOException e) {
-            System.err.println("Error processing file " + docPath + ": " + e.getMessage());
-            logger.log(Level.SEVERE, "Error processing file " + docPath, e);
-            return Collections.emptyList();
+    static AbstractWordReader createReader(String docPath, ProcessingOptions options) {
+        String fileExtension = getFileExtension(docPath);
+        AbstractWordReader reader;
+        if (".doc".equalsIgnoreCase(fileExtension)) {
+            reader = new DocWordReader(docPath, options.getExtractionRules());
+            logger.log(Level.INFO, "Using DocWordReader for file: {0}", docPath);
+        } else if (".docx".equalsIgnoreCase(fileExtension) && options.isStreamingDocxReader()) {
+            reader = new StaxDocxWordReader(docPath, options.getExtractionRules());
+            logger.log(Level.INFO, "Using StaxDocxWordReader for file: {0}", docPath);
+        } else if (".docx".equalsIgnoreCase(fileExtension)) {
+            reader = new DocxWordReader(docPath, options.getExtractionRules());
+            logger.log(Level.INFO, "Using DocxWordReader for file: {0}", docPath);
+        } else {
+            logger.log(Level.SEVERE, "Unsupported file format: {0}", fileExtension);
+            throw new IllegalArgumentException("Unsupported file format: " + fileExtension);
         }
+        return reader;
     }
 
     private static String getFileExtension(String docPath) {
         int lastIndex = docPath.lastIndexOf('.');
         String extension = (lastIndex == -1) ? "" : docPath.substring(lastIndex);
-        logger.log(Level.INFO, "File extension for {0}: {1}", new Object[]{docPath, extension});
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "File extension for {0}: {1}", new Object[]{docPath, extension});
+        }
         return extension;
     }
 
@@ -145,9 +194,83 @@ public class FolderProcessor {
 
         logger.log(Level.INFO, "Starting folder processing with folder path: {0} and output path: {1}", new Object[]{folderPath, excelFilePath});
 
-        processFolder(folderPath, excelFilePath.toString());
+        ProcessingOptions options = optionsFromSystemProperties(baseFolder.resolve("run-metrics-" + timestamp + ".json"));
+
+        if (Boolean.getBoolean("dlautomation.watch")) {
+            try (FolderWatcher watcher = new FolderWatcher(Paths.get(folderPath), excelFilePath, options,
+                    Long.getLong("dlautomation.watch.debounceMillis", FolderWatcher.DEFAULT_DEBOUNCE_MILLIS))) {
+                watcher.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            GlobalLogger.shutdown();
+            return;
+        }
+
+        processFolder(folderPath, excelFilePath.toString(), options);
 
         logger.log(Level.INFO, "Processing completed. Results saved to: {0}", excelFilePath);
+        GlobalLogger.shutdown();
+    }
+
+    /**
+     * Builds the processing options from the {@code dlautomation.*} system properties.
+     *
+     * @param defaultMetricsReport where the run report goes unless {@code dlautomation.metrics.report} is set
+     */
+    public static ProcessingOptions optionsFromSystemProperties(Path defaultMetricsReport) {
+        ProcessingOptions options = new ProcessingOptions();
+        options.setParallelism(Integer.getInteger("dlautomation.parallelism", 1));
+        options.setReaderThreads(Integer.getInteger("dlautomation.readerThreads", 2));
+        options.setFilterThreads(Integer.getInteger("dlautomation.filterThreads", 1));
+        options.setQueueCapacity(Integer.getInteger("dlautomation.queueCapacity", 16));
+        options.setDocumentTimeoutMillis(Long.getLong("dlautomation.document.timeoutSeconds", 120) * 1000);
+        options.setDocumentMaxAllocatedBytes(Long.getLong("dlautomation.document.maxAllocatedMB", 0) * 1024 * 1024);
+        options.setRetryFailedDocuments(Boolean.parseBoolean(System.getProperty("dlautomation.document.retry", "true")));
+        options.setParseMemoryBudget(Double.parseDouble(System.getProperty("dlautomation.parse.memoryBudget", "0.6")));
+        options.setChangeBufferHeapBytes(Long.getLong("dlautomation.changeBuffer.heapMB", 64) * 1024 * 1024);
+        options.setStreamingDocxReader(Boolean.getBoolean("dlautomation.docx.streaming"));
+        String rulesFile = System.getProperty("dlautomation.rules", "");
+        if (!rulesFile.isBlank()) {
+            try {
+                options.setExtractionRules(ExtractionRules.load(Paths.get(rulesFile)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load the extraction rules from " + rulesFile, e);
+            }
+        }
+        options.setRedPrescan(Boolean.parseBoolean(System.getProperty("dlautomation.prescan", "true")));
+        options.setDeduplicateContent(Boolean.parseBoolean(System.getProperty("dlautomation.dedup", "true")));
+        if (!"off".equalsIgnoreCase(System.getProperty("dlautomation.cache"))) {
+            options.setCacheFile(Paths.get(System.getProperty("dlautomation.cache",
+                    Paths.get(System.getProperty("user.home"), ".dlautomation", "extraction-cache.bin").toString())));
+            options.setVerifyContentHash(Boolean.getBoolean("dlautomation.cache.verifyContentHash"));
+        }
+        options.setIncludeGlobs(globList(System.getProperty("dlautomation.include", "")));
+        options.setExcludeGlobs(globList(System.getProperty("dlautomation.exclude", "")));
+        options.setMetricsReport(Paths.get(System.getProperty("dlautomation.metrics.report",
+                defaultMetricsReport.toString())));
+        options.setSlowestDocumentCount(Integer.getInteger("dlautomation.metrics.slowest", 10));
+        options.setOutputFormats(Arrays.stream(System.getProperty("dlautomation.output.formats", "xlsx").split(","))
+                .filter(format -> !format.isBlank())
+                .map(OutputFormat::parse)
+                .toList());
+        String shardBy = System.getProperty("dlautomation.output.shardBy", "");
+        if (!shardBy.isBlank()) {
+            options.setShardBy(ShardKey.parse(shardBy));
+        }
+        String changeIndex = System.getProperty("dlautomation.diff.index", "");
+        if (!changeIndex.isBlank() && !"off".equalsIgnoreCase(changeIndex)) {
+            options.setChangeIndexFile(Paths.get(changeIndex));
+        }
+        return options;
+    }
+
+    // Globs are separated by ';' since ',' is part of the glob syntax.
+    private static List<String> globList(String property) {
+        return Arrays.stream(property.split(";"))
+                .map(String::trim)
+                .filter(glob -> !glob.isEmpty())
+                .toList();
     }
 
 }
@@ -0,0 +1,252 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.cache.ExtractionCache;
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the change workbook of a mapping folder up to date. After an initial full extraction it
+ * watches the folder tree and, once events have been quiet for the debounce interval, re-extracts
+ * only the documents that were added or modified, drops deleted ones and rewrites the workbook.
+ * Word's "~$" lock files and documents outside the include/exclude globs are ignored.
+ */
+public class FolderWatcher implements Closeable {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 1000;
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private final Path folder;
+    private final Path outputFile;
+    private final ProcessingOptions options;
+    private final long debounceMillis;
+    private final DocumentDiscovery discovery;
+    private final ExtractionCache cache;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, List<ChangeInfo>> changesByDocument = new TreeMap<>();
+
+    public FolderWatcher(Path folder, Path outputFile, ProcessingOptions options, long debounceMillis) throws IOException {
+        this.folder = folder.toAbsolutePath();
+        this.outputFile = outputFile.toAbsolutePath();
+        this.options = options;
+        this.debounceMillis = debounceMillis;
+        this.discovery = new DocumentDiscovery(this.folder, options.getIncludeGlobs(), options.getExcludeGlobs());
+        this.cache = options.getCacheFile() != null
+                ? ExtractionCache.load(options.getCacheFile(), options.isVerifyContentHash(), options.getExtractionRules(),
+                        options.getChangeBufferHeapBytes())
+                : null;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Extracts the whole folder, then blocks and applies changes until the watcher is closed or the
+     * thread is interrupted.
+     */
+    public void run() throws IOException, InterruptedException {
+        logger.log(Level.INFO, "Watching folder {0}, output file: {1}", new Object[]{folder, outputFile});
+        rescan();
+
+        try {
+            while (true) {
+                Set<Path> changedPaths = new LinkedHashSet<>();
+                boolean overflow = collectEvents(watchService.take(), changedPaths);
+
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collectEvents(key, changedPaths);
+                }
+
+                if (overflow) {
+                    logger.log(Level.WARNING, "Too many file events in {0}, extracting the whole folder again.", folder);
+                    rescan();
+                } else {
+                    refresh(changedPaths);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.log(Level.INFO, "Stopped watching folder {0}", folder);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            watchService.close();
+        } finally {
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    private void rescan() throws IOException {
+        RunMetrics metrics = new RunMetrics();
+        changesByDocument.clear();
+        int documentCount = new ExtractionPipeline(documents -> discovery.walk(this::register, documents),
+                options, cache, metrics).run(changesByDocument::put);
+
+        logger.log(Level.INFO, "Extracted {0} documents from {1}", new Object[]{documentCount, folder});
+        writeOutput(metrics);
+    }
+
+    private void refresh(Set<Path> changedPaths) throws IOException {
+        RunMetrics metrics = new RunMetrics();
+        List<Path> modified = new ArrayList<>();
+        int removed = 0;
+
+        for (Path path : changedPaths) {
+            if (!discovery.matches(path)) {
+                continue;
+            }
+            if (Files.isRegularFile(path)) {
+                modified.add(path);
+            } else if (changesByDocument.remove(path) != null) {
+                if (cache != null) {
+                    cache.remove(path);
+                }
+                logger.log(Level.INFO, "Removed deleted document: {0}", path);
+                removed++;
+            }
+        }
+
+        int updated = 0;
+        if (!modified.isEmpty()) {
+            updated = new ExtractionPipeline(documents -> {
+                for (Path path : modified) {
+                    documents.handle(path);
+                }
+                return modified.size();
+            }, options, cache, metrics).run(changesByDocument::put);
+        }
+
+        if (updated + removed > 0) {
+            logger.log(Level.INFO, "Re-extracted {0} and removed {1} documents in {2} ms",
+                    new Object[]{updated, removed, metrics.getElapsedNanos() / 1_000_000});
+            writeOutput(metrics);
+        }
+    }
+
+    // Returns true if events were lost and the folder has to be scanned again.
+    private boolean collectEvents(WatchKey key, Set<Path> changedPaths) throws IOException {
+        Path dir = watchedDirectories.get(key);
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                registerTree(child, changedPaths);
+            } else {
+                changedPaths.add(child);
+            }
+        }
+
+        if (!key.reset()) {
+            // The directory is gone; everything that was extracted below it has to be dropped.
+            watchedDirectories.remove(key);
+            if (dir != null) {
+                for (Path document : changesByDocument.keySet()) {
+                    if (document.startsWith(dir)) {
+                        changedPaths.add(document);
+                    }
+                }
+            }
+        }
+        return overflow;
+    }
+
+    // A directory that was created or moved in may already contain documents before it is registered.
+    private void registerTree(Path dir, Set<Path> changedPaths) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                register(subDir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                changedPaths.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirectories.put(key, dir);
+    }
+
+    // Writes next to the output files first, so readers never see a half-written file.
+    private void writeOutput(RunMetrics metrics) throws IOException {
+        String name = outputFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        Path tempFile = outputFile.resolveSibling(dot > 0
+                ? name.substring(0, dot) + ".tmp" + name.substring(dot)
+                : name + ".tmp");
+        try (ChangeSink sink = OutputFormat.createSinks(options.getOutputFormats(), tempFile, metrics)) {
+            for (List<ChangeInfo> changes : changesByDocument.values()) {
+                sink.writeAll(changes);
+            }
+        }
+
+        for (OutputFormat format : options.getOutputFormats()) {
+            replace(format.resolve(tempFile), format.resolve(outputFile));
+        }
+
+        if (cache != null) {
+            try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.CACHE_SAVE)) {
+                cache.save();
+            }
+        }
+    }
+
+    private void replace(Path tempFile, Path target) {
+        try {
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.log(Level.INFO, "Output file updated: {0}", target);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not replace {0}, it may be open in Excel. The new version is in {1}.",
+                    new Object[]{target, tempFile});
+        }
+    }
+}
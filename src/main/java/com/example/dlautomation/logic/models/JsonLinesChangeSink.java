@@ -0,0 +1,67 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes one JSON object per change and line in UTF-8:
+ * <pre>
+ * {"tableName": "...", "changeNumber": "...", "change": "...", "releasestand": "...", "logik": "...",
+ *  "mappingName": "...", "wholeString": "...", "fullyRed": true}
+ * </pre>
+ */
+public class JsonLinesChangeSink extends TextChangeSink {
+
+    public JsonLinesChangeSink(Path file, RunMetrics metrics) throws IOException {
+        super(file, metrics, "JSON Lines");
+    }
+
+    @Override
+    public void write(ChangeInfo change) throws IOException {
+        out.write("{\"tableName\": ");
+        writeString(change.getTableName());
+        out.write(", \"changeNumber\": ");
+        writeString(change.getChangeNumber());
+        out.write(", \"change\": ");
+        writeString(change.getChange());
+        out.write(", \"releasestand\": ");
+        writeString(change.getReleasestand());
+        out.write(", \"logik\": ");
+        writeString(change.getLogik());
+        out.write(", \"mappingName\": ");
+        writeString(change.getMappingName());
+        out.write(", \"wholeString\": ");
+        writeString(change.getWholeString());
+        out.write(", \"fullyRed\": ");
+        out.write(change.isFullyRed() ? "true" : "false");
+        out.write("}\n");
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+public enum OutputFormat {
+    XLSX(".xlsx"),
+    CSV(".csv"),
+    JSONL(".jsonl");
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * The file of this format next to {@code outputFile}: same folder and base name, this format's extension.
+     */
+    public Path resolve(Path outputFile) {
+        String name = outputFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return outputFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + extension);
+    }
+
+    public ChangeSink createSink(Path file, RunMetrics metrics) throws IOException {
+        return switch (this) {
+            case XLSX -> new ExcelStreamWriter(file.toString(), metrics);
+            case CSV -> new CsvChangeSink(file, metrics);
+            case JSONL -> new JsonLinesChangeSink(file, metrics);
+        };
+    }
+
+    /**
+     * Opens one sink per format, each at {@link #resolve(Path) its file} next to {@code outputFile}.
+     */
+    public static ChangeSink createSinks(Collection<OutputFormat> formats, Path outputFile, RunMetrics metrics) throws IOException {
+        return createSinks(formats, null, outputFile, metrics);
+    }
+
+    /**
+     * Same as {@link #createSinks(Collection, Path, RunMetrics)}, with the XLSX output split into
+     * workbooks by {@code shardBy} unless it is null.
+     */
+    public static ChangeSink createSinks(Collection<OutputFormat> formats, ShardKey shardBy, Path outputFile,
+                                         RunMetrics metrics) throws IOException {
+        List<ChangeSink> sinks = new ArrayList<>();
+        try {
+            for (OutputFormat format : formats) {
+                Path file = format.resolve(outputFile);
+                sinks.add(format == XLSX && shardBy != null
+                        ? new ShardedChangeSink(file, shardBy, metrics, Runtime.getRuntime().availableProcessors())
+                        : format.createSink(file, metrics));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (ChangeSink sink : sinks) {
+                sink.discard();
+            }
+            throw e;
+        }
+        return sinks.size() == 1 ? sinks.get(0) : new CompositeChangeSink(sinks);
+    }
+
+    public static OutputFormat parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown output format: " + name + ", expected one of xlsx, csv, jsonl");
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Admits documents to the parse stage against a heap budget. Each document is charged an estimate of
+ * what its reader keeps on the heap while parsing, derived from its size and format; a document is
+ * admitted once its cost fits into the budget next to the documents being parsed, or when nothing else
+ * is parsed, so a document larger than the budget still runs, alone. Documents are admitted in arrival
+ * order, so a large document is not starved by smaller ones behind it.
+ * <p>
+ * On top of the budget the number of concurrent parses adapts to the observed heap: it is halved when
+ * the heap left after the last collection gets low or the JVM spends a large share of its time in GC,
+ * and grows by one again while both look healthy.
+ * <p>
+ * There is one instance per process, shared by all pipelines, since the budget is a share of the one
+ * heap: two jobs running at once (e.g. in the extraction service) together stay within the budget of
+ * either. The concurrency limit is the sum of the parallelism of the running pipelines.
+ * <p>
+ * A parse the watchdog gives up on is {@linkplain #abandon(Permit) abandoned}: it stops counting
+ * against the concurrency limit right away, so a worker stuck in POI does not block the documents
+ * behind it, but its heap stays charged until the worker has really exited.
+ */
+final class ParseAdmission {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    // Heap held while parsing. XWPF turns the XML parts into an XMLBeans DOM of about 25 bytes per XML
+    // byte (measured: 95 MB for a 4 MB document.xml zipped to 170 KB), so for .docx the uncompressed
+    // size of the XML parts counts, not the file size. The streaming reader only keeps the current
+    // table; HWPF keeps the file and its text structures.
+    private static final int DOCX_DOM_PER_XML_BYTE = 25;
+    private static final int DOCX_FALLBACK_FACTOR = 100;
+    private static final int DOCX_STREAMING_FACTOR = 3;
+    private static final int DOC_FACTOR = 4;
+    private static final long BASE_COST = 2L * 1024 * 1024;
+
+    private static final long SAMPLE_INTERVAL_NANOS = 250_000_000L;
+    private static final double GC_PRESSURE = 0.25;
+    private static final double GC_RELAXED = 0.05;
+    private static final double HEADROOM_PRESSURE = 0.15;
+    private static final double HEADROOM_RELAXED = 0.40;
+
+    private static final ParseAdmission PROCESS_WIDE = new ParseAdmission();
+
+    private final ArrayDeque<Object> waiting = new ArrayDeque<>();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+
+    private int maxParallelism;
+    private int limit;
+    private int running;
+    private long inUse;
+    private long lastSampleNanos = System.nanoTime();
+    private long lastGcMillis = totalGcMillis();
+
+    // Tests take their own instance; the pipelines share processWide().
+    ParseAdmission() {
+    }
+
+    static ParseAdmission processWide() {
+        return PROCESS_WIDE;
+    }
+
+    /**
+     * Heap the documents being parsed may take together under {@code options}.
+     */
+    static long budget(ProcessingOptions options) {
+        return (long) (Runtime.getRuntime().maxMemory() * options.getParseMemoryBudget());
+    }
+
+    /**
+     * A pipeline starts parsing with up to {@code parallelism} documents at once.
+     */
+    synchronized void join(int parallelism, long budget) {
+        maxParallelism += parallelism;
+        limit += parallelism;
+        logger.log(Level.INFO, "Parsing up to {0} documents at once within {1} MB of heap",
+                new Object[]{limit, budget / (1024 * 1024)});
+    }
+
+    synchronized void leave(int parallelism) {
+        maxParallelism -= parallelism;
+        limit = Math.max(1, Math.min(limit, maxParallelism));
+        notifyAll();
+    }
+
+    static long estimateCost(String docPath, byte[] content, boolean streamingDocxReader) {
+        if (!docPath.toLowerCase(Locale.ROOT).endsWith(".docx")) {
+            return BASE_COST + (long) content.length * DOC_FACTOR;
+        }
+        if (streamingDocxReader) {
+            return BASE_COST + (long) content.length * DOCX_STREAMING_FACTOR;
+        }
+        long xmlBytes = uncompressedXmlBytes(content);
+        return xmlBytes >= 0
+                ? BASE_COST + content.length + xmlBytes * DOCX_DOM_PER_XML_BYTE
+                : BASE_COST + (long) content.length * DOCX_FALLBACK_FACTOR;
+    }
+
+    /**
+     * Sum of the uncompressed sizes of the .xml entries, read from the zip's central directory without
+     * inflating anything; -1 if the directory cannot be read (not a zip, zip64, truncated).
+     */
+    static long uncompressedXmlBytes(byte[] zip) {
+        ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int end = -1;
+        for (int i = zip.length - 22; i >= Math.max(0, zip.length - 22 - 0xFFFF); i--) {
+            if (buffer.getInt(i) == 0x06054b50) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            int entries = buffer.getShort(end + 10) & 0xFFFF;
+            long position = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+            long total = 0;
+            for (int i = 0; i < entries; i++) {
+                int entry = Math.toIntExact(position);
+                if (buffer.getInt(entry) != 0x02014b50) {
+                    return -1;
+                }
+                long size = buffer.getInt(entry + 24) & 0xFFFFFFFFL;
+                int nameLength = buffer.getShort(entry + 28) & 0xFFFF;
+                int extraLength = buffer.getShort(entry + 30) & 0xFFFF;
+                int commentLength = buffer.getShort(entry + 32) & 0xFFFF;
+                String name = new String(zip, entry + 46, nameLength, StandardCharsets.ISO_8859_1);
+                if (name.endsWith(".xml")) {
+                    total += size;
+                }
+                position = entry + 46L + nameLength + extraLength + commentLength;
+            }
+            return total;
+        } catch (IndexOutOfBoundsException | ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Blocks until the document may be parsed within {@code budget}, counting the documents of all
+     * pipelines, but at most {@code timeoutMillis} (0 waits without limit). The returned permit must
+     * be {@linkplain #release(Permit) released} once the parse has ended.
+     */
+    synchronized Permit acquire(long cost, long budget, long timeoutMillis) throws InterruptedException, IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Object ticket = new Object();
+        waiting.add(ticket);
+        try {
+            while (waiting.peek() != ticket || !fits(cost, budget)) {
+                if (timeoutMillis == 0) {
+                    wait();
+                    continue;
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    waiting.remove(ticket);
+                    notifyAll();
+                    throw new IOException("No heap to parse the document within " + timeoutMillis / 1000.0 + " s");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            waiting.remove(ticket);
+            notifyAll();
+            throw e;
+        }
+        waiting.remove();
+        running++;
+        inUse += cost;
+        notifyAll();
+        return new Permit(cost);
+    }
+
+    /**
+     * The parse holding {@code permit} has ended: frees its slot and its heap. Further calls do nothing.
+     */
+    synchronized void release(Permit permit) {
+        if (permit.released) {
+            return;
+        }
+        permit.released = true;
+        if (!permit.abandoned) {
+            running--;
+        }
+        inUse -= permit.cost;
+        sample();
+        notifyAll();
+    }
+
+    /**
+     * Nobody waits for the parse holding {@code permit} any more, though its worker may still run:
+     * frees its slot, but keeps its heap charged until {@link #release(Permit)}.
+     */
+    synchronized void abandon(Permit permit) {
+        if (permit.released || permit.abandoned) {
+            return;
+        }
+        permit.abandoned = true;
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * A parse ran out of memory: only one document at a time until the heap has recovered.
+     */
+    synchronized void outOfMemory() {
+        if (limit > 1) {
+            logger.log(Level.WARNING, "Out of memory while parsing, parsing one document at a time");
+        }
+        limit = 1;
+    }
+
+    static final class Permit {
+        private final long cost;
+        private boolean abandoned;
+        private boolean released;
+
+        private Permit(long cost) {
+            this.cost = cost;
+        }
+    }
+
+    private boolean fits(long cost, long budget) {
+        return running == 0 || (running < limit && inUse + cost <= budget);
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long elapsedNanos = now - lastSampleNanos;
+        if (elapsedNanos < SAMPLE_INTERVAL_NANOS) {
+            return;
+        }
+        long gcMillis = totalGcMillis();
+        double gcShare = (gcMillis - lastGcMillis) * 1_000_000.0 / elapsedNanos;
+        lastSampleNanos = now;
+        lastGcMillis = gcMillis;
+
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        double headroom = (double) (maxHeap - liveHeap()) / maxHeap;
+        int previousLimit = limit;
+        if (gcShare > GC_PRESSURE || headroom < HEADROOM_PRESSURE) {
+            limit = Math.max(1, limit / 2);
+        } else if (gcShare < GC_RELAXED && headroom > HEADROOM_RELAXED && limit < maxParallelism) {
+            limit++;
+        }
+        if (limit != previousLimit) {
+            logger.log(Level.INFO, "Parsing up to {0} documents at once (GC {1}% of time, {2}% heap free)",
+                    new Object[]{limit, Math.round(gcShare * 100), Math.round(headroom * 100)});
+        }
+    }
+
+    // Heap in use after the last collection of each pool, which leaves out garbage not yet collected;
+    // falls back to the current usage where a pool does not report it.
+    private long liveHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isValid()) {
+                continue;
+            }
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            used += afterGc != null ? afterGc.getUsed() : pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.cache.SpillBuffer;
+import com.example.dlautomation.logic.readers.ExtractionRules;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public class ProcessingOptions {
+    private int parallelism = 1;
+    private int readerThreads = 2;
+    private int filterThreads = 1;
+    private int queueCapacity = 16;
+    private double parseMemoryBudget = 0.6;
+    private long changeBufferHeapBytes = 64L * 1024 * 1024;
+    private long documentTimeoutMillis = 120_000;
+    private long documentMaxAllocatedBytes;
+    private boolean retryFailedDocuments = true;
+    private Path cacheFile;
+    private boolean verifyContentHash;
+    private boolean streamingDocxReader;
+    private boolean deduplicateContent = true;
+    private boolean redPrescan = true;
+    private Path metricsReport;
+    private int slowestDocumentCount = 10;
+    private List<String> includeGlobs = List.of();
+    private List<String> excludeGlobs = List.of();
+    private List<OutputFormat> outputFormats = List.of(OutputFormat.XLSX);
+    private ShardKey shardBy;
+    private Path changeIndexFile;
+    private ExtractionRules extractionRules = ExtractionRules.defaults();
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    public void setReaderThreads(int readerThreads) {
+        if (readerThreads < 1) {
+            throw new IllegalArgumentException("Reader threads must be at least 1, was " + readerThreads);
+        }
+        this.readerThreads = readerThreads;
+    }
+
+    public int getFilterThreads() {
+        return filterThreads;
+    }
+
+    public void setFilterThreads(int filterThreads) {
+        if (filterThreads < 1) {
+            throw new IllegalArgumentException("Filter threads must be at least 1, was " + filterThreads);
+        }
+        this.filterThreads = filterThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1, was " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public double getParseMemoryBudget() {
+        return parseMemoryBudget;
+    }
+
+    /**
+     * Share of the maximum heap that documents being parsed may take together, by their estimated cost.
+     */
+    public void setParseMemoryBudget(double parseMemoryBudget) {
+        if (!(parseMemoryBudget > 0 && parseMemoryBudget <= 1)) {
+            throw new IllegalArgumentException("Parse memory budget must be in (0, 1], was " + parseMemoryBudget);
+        }
+        this.parseMemoryBudget = parseMemoryBudget;
+    }
+
+    public long getChangeBufferHeapBytes() {
+        return changeBufferHeapBytes;
+    }
+
+    /**
+     * Heap the extraction cache and the change index may each fill with serialized changes before they
+     * move them to a memory-mapped temporary file. At most {@link SpillBuffer#MAX_HEAP_LIMIT_BYTES}.
+     */
+    public void setChangeBufferHeapBytes(long changeBufferHeapBytes) {
+        if (changeBufferHeapBytes < 0) {
+            throw new IllegalArgumentException("Change buffer heap must not be negative, was " + changeBufferHeapBytes);
+        }
+        if (changeBufferHeapBytes > SpillBuffer.MAX_HEAP_LIMIT_BYTES) {
+            throw new IllegalArgumentException("Change buffer heap must be below 2 GB, was " + changeBufferHeapBytes);
+        }
+        this.changeBufferHeapBytes = changeBufferHeapBytes;
+    }
+
+    public long getDocumentTimeoutMillis() {
+        return documentTimeoutMillis;
+    }
+
+    /**
+     * Time one document's extraction may take before it is given up and quarantined; 0 for no limit.
+     */
+    public void setDocumentTimeoutMillis(long documentTimeoutMillis) {
+        if (documentTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Document timeout must not be negative, was " + documentTimeoutMillis);
+        }
+        this.documentTimeoutMillis = documentTimeoutMillis;
+    }
+
+    public long getDocumentMaxAllocatedBytes() {
+        return documentMaxAllocatedBytes;
+    }
+
+    /**
+     * Bytes one document's extraction may allocate, garbage included, before it is given up and
+     * quarantined; 0, the default, for no limit.
+     */
+    public void setDocumentMaxAllocatedBytes(long documentMaxAllocatedBytes) {
+        if (documentMaxAllocatedBytes < 0) {
+            throw new IllegalArgumentException("Allocation limit must not be negative, was " + documentMaxAllocatedBytes);
+        }
+        this.documentMaxAllocatedBytes = documentMaxAllocatedBytes;
+    }
+
+    public boolean isRetryFailedDocuments() {
+        return retryFailedDocuments;
+    }
+
+    /**
+     * Retries documents that failed once more after all others. On by default.
+     */
+    public void setRetryFailedDocuments(boolean retryFailedDocuments) {
+        this.retryFailedDocuments = retryFailedDocuments;
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    public void setCacheFile(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    public boolean isVerifyContentHash() {
+        return verifyContentHash;
+    }
+
+    public void setVerifyContentHash(boolean verifyContentHash) {
+        this.verifyContentHash = verifyContentHash;
+    }
+
+    public boolean isStreamingDocxReader() {
+        return streamingDocxReader;
+    }
+
+    public void setStreamingDocxReader(boolean streamingDocxReader) {
+        this.streamingDocxReader = streamingDocxReader;
+    }
+
+    public boolean isDeduplicateContent() {
+        return deduplicateContent;
+    }
+
+    /**
+     * Parses byte-identical documents (same size and SHA-256) only once per run and reuses the result
+     * for every copy. On by default.
+     */
+    public void setDeduplicateContent(boolean deduplicateContent) {
+        this.deduplicateContent = deduplicateContent;
+    }
+
+    public boolean isRedPrescan() {
+        return redPrescan;
+    }
+
+    /**
+     * Skips the full parse of documents whose bytes contain no red run marker. On by default.
+     */
+    public void setRedPrescan(boolean redPrescan) {
+        this.redPrescan = redPrescan;
+    }
+
+    public Path getMetricsReport() {
+        return metricsReport;
+    }
+
+    public void setMetricsReport(Path metricsReport) {
+        this.metricsReport = metricsReport;
+    }
+
+    public int getSlowestDocumentCount() {
+        return slowestDocumentCount;
+    }
+
+    public void setSlowestDocumentCount(int slowestDocumentCount) {
+        if (slowestDocumentCount < 0) {
+            throw new IllegalArgumentException("Slowest document count must not be negative, was " + slowestDocumentCount);
+        }
+        this.slowestDocumentCount = slowestDocumentCount;
+    }
+
+    public List<String> getIncludeGlobs() {
+        return includeGlobs;
+    }
+
+    public void setIncludeGlobs(List<String> includeGlobs) {
+        this.includeGlobs = List.copyOf(includeGlobs);
+    }
+
+    public List<String> getExcludeGlobs() {
+        return excludeGlobs;
+    }
+
+    public void setExcludeGlobs(List<String> excludeGlobs) {
+        this.excludeGlobs = List.copyOf(excludeGlobs);
+    }
+
+    public List<OutputFormat> getOutputFormats() {
+        return outputFormats;
+    }
+
+    public void setOutputFormats(List<OutputFormat> outputFormats) {
+        if (outputFormats.isEmpty()) {
+            throw new IllegalArgumentException("At least one output format is required");
+        }
+        this.outputFormats = List.copyOf(new LinkedHashSet<>(outputFormats));
+    }
+
+    public ShardKey getShardBy() {
+        return shardBy;
+    }
+
+    /**
+     * Splits the XLSX output into one workbook per module or table name plus an index workbook;
+     * null, the default, writes a single workbook. Watch mode always writes a single workbook.
+     */
+    public void setShardBy(ShardKey shardBy) {
+        this.shardBy = shardBy;
+    }
+
+    public Path getChangeIndexFile() {
+        return changeIndexFile;
+    }
+
+    /**
+     * Compares the run with the previous one recorded in this index and writes the differences to a
+     * delta workbook next to the output; null, the default, turns the comparison off.
+     */
+    public void setChangeIndexFile(Path changeIndexFile) {
+        this.changeIndexFile = changeIndexFile;
+    }
+
+    public ExtractionRules getExtractionRules() {
+        return extractionRules;
+    }
+
+    /**
+     * The keywords the readers find table name and Releasestand by, and the change numbers dropped from
+     * the results; defaults to {@link ExtractionRules#defaults()}.
+     */
+    public void setExtractionRules(ExtractionRules extractionRules) {
+        this.extractionRules = extractionRules;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dlautomation.logic.models;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A minimal mapping document with header rows and one red change. Extracting it touches the same
+ * XWPF, XMLBeans and SXSSF code as a real run, which is what warm-up and class-archive training need.
+ */
+public class SampleDocument {
+
+    public static final String FILE_NAME = "MOD_SAMPLE.MAP_SAMPLE.docx";
+
+    private SampleDocument() {
+    }
+
+    public static byte[] createDocx() throws IOException {
+        return createDocx("Tabellenname/View", "SAMPLE", "FELD", "FF0000");
+    }
+
+    /**
+     * The same document with another table name label and table name and a change in another color,
+     * e.g. for tests that vary one of them.
+     */
+    public static byte[] createDocx(String tableNameLabel, String tableName, String changeText, String changeColor)
+            throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XWPFTable table = document.createTable(3, 2);
+            table.getRow(0).getCell(0).setText(tableNameLabel);
+            table.getRow(0).getCell(1).setText(tableName);
+            table.getRow(1).getCell(0).setText("Releasestand");
+            table.getRow(1).getCell(1).setText("R0");
+            table.getRow(2).getCell(0).setText("1");
+            XWPFRun run = table.getRow(2).getCell(1).getParagraphs().get(0).createRun();
+            run.setText(changeText);
+            run.setColor(changeColor);
+            document.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.dlautomation.logic.models;
+
+import java.util.Locale;
+
+/**
+ * How {@link ShardedChangeSink} splits the changes into workbooks.
+ */
+public enum ShardKey {
+    /** The module of the MOD_&lt;module&gt;.MAP_&lt;mapping&gt; document name. */
+    MODULE("Modul"),
+    TABLE("Tabellenname");
+
+    static final String NO_MODULE = "ohne Modul";
+
+    private final String columnName;
+
+    ShardKey(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public static ShardKey parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown shard key: " + name + ", expected one of module, table");
+        }
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public String keyOf(ChangeInfo change) {
+        return switch (this) {
+            case MODULE -> moduleOf(change.getMappingName());
+            case TABLE -> change.getTableName() != null ? change.getTableName() : "";
+        };
+    }
+
+    static String moduleOf(String mappingName) {
+        if (mappingName == null || !mappingName.startsWith("MOD_")) {
+            return NO_MODULE;
+        }
+        int end = mappingName.indexOf('.');
+        return end > 4 ? mappingName.substring(4, end) : NO_MODULE;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.apache.poi.common.usermodel.HyperlinkType;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Hyperlink;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes one change workbook per module or table name ({@link ShardKey}) plus a small index workbook
+ * at the output path that links to them. A shard of out.xlsx is out-&lt;key&gt;.xlsx next to it.
+ * <p>
+ * Each shard is an {@link ExcelStreamWriter} fed by its own chain of tasks on a shared pool: rows of
+ * one shard are written in order, different shards are written and finally compressed concurrently.
+ * At most a few batches per thread wait for the pool, so a slow shard holds back extraction instead of
+ * piling up changes.
+ * <p>
+ * Every open workbook keeps its row window and temporary files, so only the first
+ * {@code maxOpenShards} shards are written directly. The rows of further shards (e.g. thousands of
+ * tables) are appended to a temporary spool file per shard, which is opened for each batch only; their
+ * workbooks are built from the spool on close, at most one per thread at a time.
+ */
+public class ShardedChangeSink implements ChangeSink {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.EXCEL);
+
+    public static final int DEFAULT_MAX_OPEN_SHARDS = 32;
+
+    private final Path indexFile;
+    private final ShardKey shardKey;
+    private final RunMetrics metrics;
+    private final ExecutorService pool;
+    private final Semaphore pendingBatches;
+    private final int maxOpenShards;
+    private final Map<String, Shard> shards = new TreeMap<>();
+    private final Set<String> fileNames = new HashSet<>();
+
+    public ShardedChangeSink(Path indexFile, ShardKey shardKey, RunMetrics metrics, int threads) {
+        this(indexFile, shardKey, metrics, threads, DEFAULT_MAX_OPEN_SHARDS);
+    }
+
+    public ShardedChangeSink(Path indexFile, ShardKey shardKey, RunMetrics metrics, int threads, int maxOpenShards) {
+        this.indexFile = indexFile;
+        this.shardKey = shardKey;
+        this.metrics = metrics;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingBatches = new Semaphore(threads * 4);
+        this.maxOpenShards = maxOpenShards;
+        logger.log(Level.INFO, "Writing one workbook per {0} with {1} threads, index: {2}",
+                new Object[]{shardKey, threads, indexFile});
+    }
+
+    @Override
+    public void write(ChangeInfo change) throws IOException {
+        writeAll(List.of(change));
+    }
+
+    @Override
+    public void writeAll(Collection<ChangeInfo> changes) throws IOException {
+        checkFailure();
+        Map<Shard, List<ChangeInfo>> batches = new LinkedHashMap<>();
+        for (ChangeInfo change : changes) {
+            String key = shardKey.keyOf(change);
+            Shard shard = shards.get(key);
+            if (shard == null) {
+                shard = createShard(key);
+                shards.put(key, shard);
+            }
+            if (change.isFullyRed()) {
+                shard.datenmodellanderungen++;
+            } else {
+                shard.logikanderungen++;
+            }
+            batches.computeIfAbsent(shard, s -> new ArrayList<>()).add(change);
+        }
+
+        for (Map.Entry<Shard, List<ChangeInfo>> batch : batches.entrySet()) {
+            Shard shard = batch.getKey();
+            List<ChangeInfo> shardChanges = batch.getValue();
+            acquireBatch();
+            shard.tail = shard.tail
+                    .thenRunAsync(() -> shard.write(shardChanges), pool)
+                    .whenComplete((result, error) -> pendingBatches.release());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            List<CompletableFuture<Void>> closed = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                closed.add(shard.tail.thenRunAsync(() -> {
+                    try {
+                        shard.close();
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, pool));
+            }
+            join(closed);
+            writeIndex();
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.log(Level.INFO, "Wrote {0} workbooks and index {1}", new Object[]{shards.size(), indexFile});
+    }
+
+    @Override
+    public void discard() throws IOException {
+        try {
+            for (Shard shard : shards.values()) {
+                try {
+                    shard.tail.join();
+                } catch (CompletionException e) {
+                    // The shard is thrown away anyway.
+                }
+                shard.discard();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.log(Level.INFO, "Sharded output discarded: {0}", indexFile);
+    }
+
+    private Shard createShard(String key) throws IOException {
+        String name = indexFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+
+        String fileName = baseName + "-" + sanitize(key) + ".xlsx";
+        for (int i = 2; !fileNames.add(fileName.toLowerCase(Locale.ROOT)); i++) {
+            fileName = baseName + "-" + sanitize(key) + "-" + i + ".xlsx";
+        }
+        Path file = indexFile.resolveSibling(fileName);
+        if (shards.size() < maxOpenShards) {
+            return new Shard(key, file, new ExcelStreamWriter(file.toString(), metrics), null, metrics);
+        }
+        if (shards.size() == maxOpenShards) {
+            logger.log(Level.INFO, "More than {0} workbooks, spooling the rows of the others until the end",
+                    maxOpenShards);
+        }
+        return new Shard(key, file, null, Files.createTempFile("dlautomation-shard", ".bin"), metrics);
+    }
+
+    private void writeIndex() throws IOException {
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE);
+             XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Index");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue(shardKey.getColumnName());
+            header.createCell(1).setCellValue("Datei");
+            header.createCell(2).setCellValue("Datenmodelländerungen");
+            header.createCell(3).setCellValue("Logikänderungen");
+
+            CellStyle linkStyle = workbook.createCellStyle();
+            Font linkFont = workbook.createFont();
+            linkFont.setUnderline(Font.U_SINGLE);
+            linkFont.setColor(IndexedColors.BLUE.getIndex());
+            linkStyle.setFont(linkFont);
+
+            int rowNum = 1;
+            for (Shard shard : shards.values()) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(shard.key);
+                String fileName = shard.file.getFileName().toString();
+                Cell link = row.createCell(1);
+                link.setCellValue(fileName);
+                Hyperlink hyperlink = workbook.getCreationHelper().createHyperlink(HyperlinkType.FILE);
+                hyperlink.setAddress(fileName);
+                link.setHyperlink(hyperlink);
+                link.setCellStyle(linkStyle);
+                row.createCell(2).setCellValue(shard.datenmodellanderungen);
+                row.createCell(3).setCellValue(shard.logikanderungen);
+            }
+            sheet.setColumnWidth(0, 30 * 256);
+            sheet.setColumnWidth(1, 50 * 256);
+            sheet.setColumnWidth(2, 24 * 256);
+            sheet.setColumnWidth(3, 18 * 256);
+
+            try (OutputStream out = Files.newOutputStream(indexFile)) {
+                workbook.write(out);
+            }
+        }
+    }
+
+    // A failed batch fails every later batch of its shard, so it is enough to look at the tails.
+    private void checkFailure() throws IOException {
+        for (Shard shard : shards.values()) {
+            if (shard.tail.isCompletedExceptionally()) {
+                join(List.of(shard.tail));
+            }
+        }
+    }
+
+    private void acquireBatch() throws IOException {
+        try {
+            pendingBatches.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the shard writers", e);
+        }
+    }
+
+    private static void join(List<CompletableFuture<Void>> futures) throws IOException {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Writing a shard failed", e.getCause());
+        }
+    }
+
+    // Keeps file names portable; the original key stays in the index.
+    private static String sanitize(String key) {
+        String sanitized = key.replaceAll("[^A-Za-z0-9._-]", "_");
+        return sanitized.isEmpty() ? "_" : sanitized;
+    }
+
+    private static class Shard {
+        private final String key;
+        private final Path file;
+        // Either the open workbook or the file its rows are spooled to.
+        private final ExcelStreamWriter writer;
+        private final Path spoolFile;
+        private final RunMetrics metrics;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private int datenmodellanderungen;
+        private int logikanderungen;
+
+        private Shard(String key, Path file, ExcelStreamWriter writer, Path spoolFile, RunMetrics metrics) {
+            this.key = key;
+            this.file = file;
+            this.writer = writer;
+            this.spoolFile = spoolFile;
+            this.metrics = metrics;
+        }
+
+        private void write(List<ChangeInfo> changes) {
+            if (writer != null) {
+                writer.writeAll(changes);
+                return;
+            }
+            try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Files.newOutputStream(spoolFile, StandardOpenOption.APPEND)))) {
+                for (ChangeInfo change : changes) {
+                    ChangeInfoSerializer.write(out, change);
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }
+
+        private void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                return;
+            }
+            ExcelStreamWriter spooled = new ExcelStreamWriter(file.toString(), metrics);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spoolFile)))) {
+                List<ChangeInfo> batch = new ArrayList<>();
+                for (int i = datenmodellanderungen + logikanderungen; i > 0; i--) {
+                    batch.add(ChangeInfoSerializer.read(in));
+                    if (batch.size() == ExcelStreamWriter.DEFAULT_ROW_WINDOW || i == 1) {
+                        spooled.writeAll(batch);
+                        batch.clear();
+                    }
+                }
+            } catch (IOException e) {
+                spooled.discard();
+                throw e;
+            } finally {
+                Files.deleteIfExists(spoolFile);
+            }
+            spooled.close();
+        }
+
+        private void discard() throws IOException {
+            if (writer != null) {
+                writer.discard();
+            } else {
+                Files.deleteIfExists(spoolFile);
+            }
+        }
+    }
+}
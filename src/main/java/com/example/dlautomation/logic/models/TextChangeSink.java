@@ -0,0 +1,57 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.Phase;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base of the sinks that write a UTF-8 text file, one record per change. The output is flushed after
+ * every document, so the file can be followed while the run is going on.
+ */
+public abstract class TextChangeSink implements ChangeSink {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.EXCEL);
+
+    private final Path file;
+    private final RunMetrics metrics;
+    private final String formatName;
+    protected final Writer out;
+
+    protected TextChangeSink(Path file, RunMetrics metrics, String formatName) throws IOException {
+        this.file = file;
+        this.metrics = metrics;
+        this.formatName = formatName;
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        logger.log(Level.INFO, "Writing changes to {0} file: {1}", new Object[]{formatName, file});
+    }
+
+    @Override
+    public void writeAll(Collection<ChangeInfo> changes) throws IOException {
+        try (RunMetrics.PhaseTimer ignored = metrics.startPhase(Phase.WRITE)) {
+            ChangeSink.super.writeAll(changes);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        logger.log(Level.INFO, "{0} file written: {1}", new Object[]{formatName, file});
+    }
+
+    @Override
+    public void discard() throws IOException {
+        out.close();
+        Files.deleteIfExists(file);
+        logger.log(Level.INFO, "{0} output discarded: {1}", new Object[]{formatName, file});
+    }
+}
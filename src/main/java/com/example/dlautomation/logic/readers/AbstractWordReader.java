@@ -1,24 +1,37 @@
 package com.example.dlautomation.logic.readers;
 
 import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.ReaderStatistics;
 import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public abstract class AbstractWordReader {
 
-    private static final Logger logger = GlobalLogger.getLogger();
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
+
+    // Bump whenever a reader change alters what is extracted, so cached extractions are recomputed.
+    public static final int EXTRACTION_VERSION = 3;
 
     protected String docPath;
     protected String module;
     protected String mappingName;
+    protected final ReaderStatistics statistics = new ReaderStatistics();
+    protected final ExtractionRules rules;
 
     public AbstractWordReader(String docPath) {
+        this(docPath, ExtractionRules.defaults());
+    }
+
+    public AbstractWordReader(String docPath, ExtractionRules rules) {
         this.docPath = docPath;
-        logger.log(Level.INFO, "Initialized AbstractWordReader with document path: {0}", docPath);
+        this.rules = rules;
+        logger.log(Level.FINE, "Initialized AbstractWordReader with document path: {0}", docPath);
         extractModuleAndMapping();
     }
 
@@ -28,9 +41,32 @@ public abstract class AbstractWordReader {
 
     public abstract List<ChangeInfo> getRedChanges(String tableName, String releasestand) throws IOException;
 
+    /**
+     * Loads the document once and extracts table name, Releasestand and red changes from it.
+     * Prefer this over calling the three methods above in turn, each of which parses the file again.
+     */
+    public abstract DocumentExtraction extract() throws IOException;
+
+    /**
+     * Same as {@link #extract()}, but parses document content that was already read into memory;
+     * {@code docPath} then only names the document.
+     */
+    public abstract DocumentExtraction extract(byte[] content) throws IOException;
+
+    /**
+     * Stops the extraction once its thread has been interrupted, e.g. by a watchdog that gave up on
+     * the document. Readers call it per table row; POI's own loading is not interruptible.
+     */
+    protected void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Extraction cancelled: " + docPath);
+        }
+    }
+
     private void extractModuleAndMapping() {
-        logger.log(Level.INFO, "Extracting module and mapping from document path: {0}", docPath);
-        String fileName = docPath.substring(docPath.lastIndexOf("\\") + 1, docPath.lastIndexOf('.'));
+        logger.log(Level.FINE, "Extracting module and mapping from document path: {0}", docPath);
+        String fileName = mappingNameOf(docPath);
+        mappingName = fileName;
         String[] parts = fileName.split("\\.");
 
         if (parts.length >= 2) {
@@ -39,11 +75,10 @@ public abstract class AbstractWordReader {
 
             if (modulePart.startsWith("MOD_")) {
                 module = modulePart.substring(4);
-                logger.log(Level.INFO, "Extracted module: {0}", module);
+                logger.log(Level.FINE, "Extracted module: {0}", module);
             }
             if (mappingPart.startsWith("MAP_")) {
-                mappingName = mappingPart.substring(4);
-                logger.log(Level.INFO, "Extracted mapping name: {0}", mappingName);
+                logger.log(Level.FINE, "Extracted mapping: {0}", mappingPart.substring(4));
             } else {
                 logger.log(Level.WARNING, "Mapping name not found in file name: {0}", fileName);
             }
@@ -52,8 +87,22 @@ public abstract class AbstractWordReader {
         }
     }
 
+    public ReaderStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * The name the changes of a document are listed under: its file name without the extension,
+     * e.g. MOD_&lt;module&gt;.MAP_&lt;mapping&gt;.
+     */
+    public static String mappingNameOf(String docPath) {
+        int start = Math.max(docPath.lastIndexOf('/'), docPath.lastIndexOf('\\')) + 1;
+        int end = docPath.lastIndexOf('.');
+        return end > start ? docPath.substring(start, end) : docPath.substring(start);
+    }
+
     public String getMappingName() {
-        logger.log(Level.INFO, "Returning mapping name: {0}", mappingName);
+        logger.log(Level.FINER, "Returning mapping name: {0}", mappingName);
         return mappingName;
     }
 }
@@ -0,0 +1,97 @@
+package com.example.dlautomation.logic.readers;
+
+/**
+ * Classifies the runs of one table cell in a single pass: red text, whole text, whether the cell is
+ * fully red and whether a red run is struck through ("Rückbau Logik"). The readers feed it the text,
+ * colour and strike-through flag of every run and reuse one instance across cells via {@link #reset()}.
+ * <p>
+ * A cell is fully red when it has red text and no other run has visible text. Runs without text
+ * contribute nothing to red or whole text.
+ */
+final class CellAnalyzer {
+
+    static final String NEW_LOGIC = "Neue Logik";
+    static final String REMOVED_LOGIC = "Rückbau Logik";
+
+    private static final String RED = "FF0000";
+    private static final int RED_COLOR_INDEX = 6;
+
+    private final StringBuilder redText = new StringBuilder();
+    private final StringBuilder wholeText = new StringBuilder();
+    private boolean hasRedText;
+    private boolean hasOtherText;
+    private boolean isCrossedOut;
+    private int runCount;
+
+    void reset() {
+        redText.setLength(0);
+        wholeText.setLength(0);
+        hasRedText = false;
+        hasOtherText = false;
+        isCrossedOut = false;
+        runCount = 0;
+    }
+
+    void addRun(String text, boolean isRed, boolean isStrikeThrough) {
+        runCount++;
+        boolean hasText = text != null && !text.isEmpty();
+        if (isRed) {
+            hasRedText = true;
+            isCrossedOut |= isStrikeThrough;
+            if (hasText) {
+                redText.append(text).append(' ');
+            }
+        } else if (hasText && !text.isBlank()) {
+            hasOtherText = true;
+        }
+        if (hasText) {
+            wholeText.append(text);
+        }
+    }
+
+    boolean hasRedText() {
+        return hasRedText;
+    }
+
+    String redText() {
+        return hasRedText ? redText.toString().trim() : "";
+    }
+
+    String wholeText() {
+        return wholeText.toString().trim();
+    }
+
+    void appendWholeText(StringBuilder target) {
+        int start = 0;
+        int end = wholeText.length();
+        while (start < end && wholeText.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && wholeText.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        target.append(wholeText, start, end);
+    }
+
+    boolean isFullyRed() {
+        return hasRedText && !hasOtherText;
+    }
+
+    String logik() {
+        return isCrossedOut ? REMOVED_LOGIC : NEW_LOGIC;
+    }
+
+    int runCount() {
+        return runCount;
+    }
+
+    /** .docx run colour as written in {@code w:color}, e.g. "FF0000" or "ff0000". */
+    static boolean isRed(String hexColor) {
+        return RED.equalsIgnoreCase(hexColor);
+    }
+
+    /** .doc run colour as Word's colour index ({@code ico}), where 6 is red. */
+    static boolean isRed(int colorIndex) {
+        return colorIndex == RED_COLOR_INDEX;
+    }
+}
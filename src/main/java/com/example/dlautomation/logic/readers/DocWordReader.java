@@ -2,23 +2,32 @@ package com.example.dlautomation.logic.readers;
 
 import com.example.dlautomation.logic.logging.GlobalLogger;
 import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.usermodel.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
 
 public class DocWordReader extends AbstractWordReader {
 
-    private static final Logger logger = GlobalLogger.getLogger();
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
 
     public DocWordReader(String docPath) {
-        super(docPath);
-        logger.log(Level.INFO, "Initialized DocWordReader for document: {0}", docPath);
+        this(docPath, ExtractionRules.defaults());
+    }
+
+    public DocWordReader(String docPath, ExtractionRules rules) {
+        super(docPath, rules);
+        logger.log(Level.FINE, "Initialized DocWordReader for document: {0}", docPath);
     }
 
     @Override
@@ -30,31 +39,9 @@ public class DocWordReader extends AbstractWordReader {
             throw new IOException("File is a temporary document or not a valid Word file.");
         }
 
-        try (FileInputStream fis = new FileInputStream(docPath)) {
-            HWPFDocument document;
-            try {
-                document = new HWPFDocument(fis);
-            } catch (IllegalArgumentException e) {
-                logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
-                throw new IOException("The document could not be processed. It might be corrupted or in an unsupported format.", e);
-            }
-
-            Range range = document.getRange();
-            int numParagraphs = range.numParagraphs();
-            logger.log(Level.INFO, "Document contains {0} paragraphs", numParagraphs);
-
-            for (int i = 0; i < numParagraphs; i++) {
-                Paragraph paragraph = range.getParagraph(i);
-                String paragraphText = paragraph.text();
-
-                if (paragraphText.contains("Wenn")) {
-                    String tableName = extractTableNameFromText(paragraphText);
-                    if (tableName != null) {
-                        logger.log(Level.INFO, "Table name found: {0}", tableName);
-                        return tableName;
-                    }
-                }
-            }
+        try (FileInputStream fis = new FileInputStream(docPath);
+             HWPFDocument document = loadDocument(fis)) {
+            return scanHeader(document.getRange()).tableName;
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to process document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw e;
@@ -62,28 +49,17 @@ public class DocWordReader extends AbstractWordReader {
             logger.log(Level.SEVERE, "Unexpected error while processing document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw new IOException("Failed to extract table name", e);
         }
-        logger.log(Level.WARNING, "Table name not found in document: {0}", docPath);
-        return "Unknown Table Name";
     }
 
     private boolean isTemporaryFile(String filePath) {
-        boolean isTempFile = filePath.startsWith("~$");
+        boolean isTempFile = Paths.get(filePath).getFileName().toString().startsWith("~$");
         if (isTempFile) {
             logger.log(Level.INFO, "File {0} is identified as a temporary file.", filePath);
         }
         return isTempFile;
     }
 
-    private String extractTableNameFromText(String text) {
-        String prefix = "Wenn";
-        int startIndex = text.indexOf(prefix);
-
-        if (startIndex == -1) {
-            logger.log(Level.FINE, "Prefix 'Wenn' not found in text.");
-            return null;
-        }
-
-        startIndex += prefix.length();
+    private String extractTableNameFromText(String text, int startIndex) {
         int endIndex = text.indexOf('.', startIndex);
 
         if (endIndex == -1) {
@@ -98,141 +74,224 @@ public class DocWordReader extends AbstractWordReader {
     @Override
     public String extractReleasestand() throws IOException {
         logger.log(Level.INFO, "Extracting releasestand from document: {0}", docPath);
-        String releasestand = "";
         try (FileInputStream fis = new FileInputStream(docPath);
              HWPFDocument document = new HWPFDocument(fis)) {
-            Range range = document.getRange();
-            String firstPageText = range.text();
-            String regex = "Stand:\\s*([^,]+),";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(regex);
-            java.util.regex.Matcher matcher = pattern.matcher(firstPageText);
-
-            if (matcher.find()) {
-                releasestand = matcher.group(1).trim();
-                logger.log(Level.INFO, "Extracted releasestand: {0}", releasestand);
-            } else {
-                logger.log(Level.WARNING, "Releasestand not found in document: {0}", docPath);
-            }
+            return scanHeader(document.getRange()).releasestand;
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to extract releasestand from document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw e;
         }
-        return releasestand;
+    }
+
+    /**
+     * Finds table name and Releasestand in one walk over the paragraphs, stopping as soon as both are known.
+     * Each paragraph is scanned once for all header keywords of the {@link ExtractionRules}; the scan state
+     * carries over between paragraphs, so a Releasestand marker that straddles two paragraphs is found too.
+     * The Releasestand pattern then runs on the text from the marker on, once a paragraph brings a ','.
+     */
+    private HeaderFields scanHeader(Range range) {
+        HeaderFields header = new HeaderFields();
+        KeywordMatcher matcher = rules.matcher();
+        ParagraphKeywords keywords = new ParagraphKeywords();
+        int state = KeywordMatcher.INITIAL_STATE;
+        String previousText = "";
+        StringBuilder pendingText = null;
+        int numParagraphs = range.numParagraphs();
+        logger.log(Level.INFO, "Document contains {0} paragraphs", numParagraphs);
+
+        for (int i = 0; i < numParagraphs && (header.tableName == null || header.releasestand == null); i++) {
+            String paragraphText = range.getParagraph(i).text();
+            keywords.reset();
+            state = matcher.scan(paragraphText, state, keywords);
+
+            if (header.tableName == null && keywords.tableNameStart != -1) {
+                header.tableName = extractTableNameFromText(paragraphText, keywords.tableNameStart);
+                if (header.tableName != null) {
+                    logger.log(Level.INFO, "Table name found: {0}", header.tableName);
+                }
+            }
+
+            if (header.releasestand == null) {
+                if (pendingText != null) {
+                    pendingText.append(paragraphText);
+                } else if (keywords.markerStart != Integer.MIN_VALUE) {
+                    pendingText = new StringBuilder();
+                    if (keywords.markerStart < 0) {
+                        pendingText.append(previousText, Math.max(0, previousText.length() + keywords.markerStart), previousText.length());
+                    }
+                    pendingText.append(paragraphText, Math.max(0, keywords.markerStart), paragraphText.length());
+                }
+                if (pendingText != null && paragraphText.indexOf(',') != -1) {
+                    Matcher releasestandMatcher = rules.releasestandPattern().matcher(pendingText);
+                    if (releasestandMatcher.find()) {
+                        header.releasestand = releasestandMatcher.group(1).trim();
+                        logger.log(Level.INFO, "Extracted releasestand: {0}", header.releasestand);
+                    }
+                }
+            }
+            previousText = paragraphText;
+        }
+
+        if (header.tableName == null) {
+            logger.log(Level.WARNING, "Table name not found in document: {0}", docPath);
+            header.tableName = "Unknown Table Name";
+        }
+        if (header.releasestand == null) {
+            logger.log(Level.WARNING, "Releasestand not found in document: {0}", docPath);
+            header.releasestand = "";
+        }
+        return header;
     }
 
     @Override
     public List<ChangeInfo> getRedChanges(String tableName, String releasestand) throws IOException {
         logger.log(Level.INFO, "Extracting red changes from document: {0} for table: {1}", new Object[]{docPath, tableName});
-        List<ChangeInfo> changes = new ArrayList<>();
         try (FileInputStream fis = new FileInputStream(docPath);
              HWPFDocument document = new HWPFDocument(fis)) {
-            Range range = document.getRange();
-            TableIterator tableIterator = new TableIterator(range);
-            while (tableIterator.hasNext()) {
-                Table table = tableIterator.next();
-                for (int i = 0; i < table.numRows(); i++) {
-                    TableRow row = table.getRow(i);
-                    if (row.numCells() > 1) {
-                        TableCell numberCell = row.getCell(0);
-                        TableCell changeCell = row.getCell(1);
-
-                        String changeNumber = numberCell.text().trim();
-                        String wholeString = getWholeTextFromRow(row);
-                        String changeText = getRedTextFromCell(changeCell);
-
-                        boolean isFullyRed = changeText.equals(changeCell.text().trim());
-                        String logik = determineLogik(changeCell);
-
-                        if (!changeText.isEmpty()) {
-                            logger.log(Level.INFO, "Red change found: Change Number: {0}, Change Text: {1}, Is Fully Red: {2}", new Object[]{changeNumber, changeText, isFullyRed});
-                            changes.add(new ChangeInfo(tableName, changeNumber, changeText, releasestand, getMappingName(), isFullyRed, logik, wholeString));
-                        }
-                    }
-                }
-            }
+            return collectRedChanges(document.getRange(), tableName, releasestand);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to extract red changes from document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw e;
         }
-        return changes;
     }
 
-    private String determineLogik(TableCell cell) {
-        StringBuilder cellText = new StringBuilder();
-        boolean isCrossedOut = false;
+    @Override
+    public DocumentExtraction extract() throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document: {0}", docPath);
 
-        for (int i = 0; i < cell.numCharacterRuns(); i++) {
-            CharacterRun run = cell.getCharacterRun(i);
-            String color = Integer.toHexString(run.getColor());
-            if ("FF0000".equalsIgnoreCase(color)) {
-                cellText.append(run.text().trim()).append(" ");
-                if (run.isStrikeThrough()) {
-                    isCrossedOut = true;
-                }
-            }
+        if (isTemporaryFile(docPath)) {
+            logger.log(Level.WARNING, "Document {0} is a temporary file or not a valid Word document.", docPath);
+            throw new IOException("File is a temporary document or not a valid Word file.");
         }
 
-        String logik = isCrossedOut ? "Rückbau Logik" : "Neue Logik";
-        logger.log(Level.INFO, "Determined logic: {0}", logik);
-        return logik;
+        try (FileInputStream fis = new FileInputStream(docPath)) {
+            return extractFrom(fis);
+        }
     }
 
-    private String getRedTextFromCell(TableCell cell) {
-        StringBuilder redText = new StringBuilder();
-        boolean hasRedText = false;
-
-        for (int i = 0; i < cell.numCharacterRuns(); i++) {
-            CharacterRun run = cell.getCharacterRun(i);
-            String text = run.text().trim();
-            int colorIndex = run.getColor();
-
-            if (isRedColor(colorIndex)) {
-                redText.append(text).append(" ");
-                hasRedText = true;
-            }
-        }
+    @Override
+    public DocumentExtraction extract(byte[] content) throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document content: {0}", docPath);
+        return extractFrom(new ByteArrayInputStream(content));
+    }
 
-        if (hasRedText) {
-            logger.log(Level.INFO, "Red text found in cell: {0}", redText.toString().trim());
-        } else {
-            logger.log(Level.FINE, "No red text found in cell.");
+    private DocumentExtraction extractFrom(InputStream in) throws IOException {
+        long openStart = System.nanoTime();
+        try (HWPFDocument document = loadDocument(in)) {
+            long scanStart = System.nanoTime();
+            statistics.recordOpen(scanStart - openStart);
+            Range range = document.getRange();
+            HeaderFields header = scanHeader(range);
+            List<ChangeInfo> changes = collectRedChanges(range, header.tableName, header.releasestand);
+            statistics.recordScan(System.nanoTime() - scanStart);
+            return new DocumentExtraction(header.tableName, header.releasestand, changes);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to process document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error while processing document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw new IOException("Failed to extract document", e);
         }
-
-        return redText.toString().trim();
     }
 
-    private boolean isRedColor(int colorIndex) {
-        return colorIndex == 6;
+    private HWPFDocument loadDocument(InputStream in) throws IOException {
+        try {
+            return new HWPFDocument(in);
+        } catch (IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw new IOException("The document could not be processed. It might be corrupted or in an unsupported format.", e);
+        }
     }
 
-    private String getWholeTextFromRow(TableRow row) {
+    // Every character run of a row is fetched and classified once; red text, whole text,
+    // fully-red status and logic all come out of the same pass.
+    private List<ChangeInfo> collectRedChanges(Range range, String tableName, String releasestand) {
+        List<ChangeInfo> changes = new ArrayList<>();
+        CellAnalyzer analyzer = new CellAnalyzer();
         StringBuilder wholeText = new StringBuilder();
-        for (int i = 0; i < row.numCells(); i++) {
-            TableCell cell = row.getCell(i);
-            if (containsRedText(cell)) {
-                wholeText.append(getWholeText(cell)).append(" | ");
+
+        TableIterator tableIterator = new TableIterator(range);
+        while (tableIterator.hasNext()) {
+            Table table = tableIterator.next();
+            statistics.tableVisited();
+            for (int i = 0; i < table.numRows(); i++) {
+                TableRow row = table.getRow(i);
+                statistics.rowVisited();
+                checkCancelled();
+                int numCells = row.numCells();
+                if (numCells <= 1) {
+                    continue;
+                }
+
+                String changeText = "";
+                boolean isFullyRed = false;
+                String logik = CellAnalyzer.NEW_LOGIC;
+                wholeText.setLength(0);
+
+                for (int c = 0; c < numCells; c++) {
+                    analyze(row.getCell(c), analyzer);
+                    statistics.runsVisited(analyzer.runCount());
+                    if (analyzer.hasRedText()) {
+                        analyzer.appendWholeText(wholeText);
+                        wholeText.append(" | ");
+                    }
+                    if (c == 1) {
+                        changeText = analyzer.redText();
+                        isFullyRed = analyzer.isFullyRed();
+                        logik = analyzer.logik();
+                    }
+                }
+
+                if (!changeText.isEmpty()) {
+                    String changeNumber = row.getCell(0).text().trim();
+                    String wholeString = wholeText.toString().trim();
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.log(Level.FINE, "Red change found: Change Number: {0}, Change Text: {1}, Is Fully Red: {2}", new Object[]{changeNumber, changeText, isFullyRed});
+                    }
+                    changes.add(new ChangeInfo(tableName, changeNumber, changeText, releasestand, getMappingName(), isFullyRed, logik, wholeString));
+                }
             }
         }
-        logger.log(Level.INFO, "Extracted whole text from row: {0}", wholeText.toString().trim());
-        return wholeText.toString().trim();
+        return changes;
     }
 
-    private boolean containsRedText(TableCell cell) {
-        for (int i = 0; i < cell.numCharacterRuns(); i++) {
+    private static void analyze(TableCell cell, CellAnalyzer analyzer) {
+        analyzer.reset();
+        int numRuns = cell.numCharacterRuns();
+        for (int i = 0; i < numRuns; i++) {
             CharacterRun run = cell.getCharacterRun(i);
-            if (isRedColor(run.getColor())) {
-                return true;
-            }
+            boolean isRed = CellAnalyzer.isRed(run.getColor());
+            analyzer.addRun(run.text().trim(), isRed, isRed && run.isStrikeThrough());
         }
-        return false;
     }
 
-    private String getWholeText(TableCell cell) {
-        StringBuilder cellText = new StringBuilder();
-        for (int i = 0; i < cell.numCharacterRuns(); i++) {
-            CharacterRun run = cell.getCharacterRun(i);
-            cellText.append(run.text().trim());
+    // Header keywords found in one paragraph; starts are relative to the paragraph.
+    private class ParagraphKeywords implements KeywordMatcher.MatchHandler {
+        private int prefixStart;
+        private int tableNameStart;
+        private int markerStart;
+
+        private void reset() {
+            prefixStart = Integer.MAX_VALUE;
+            tableNameStart = -1;
+            markerStart = Integer.MIN_VALUE;
         }
-        return cellText.toString().trim();
+
+        @Override
+        public void onMatch(int keyword, int start) {
+            ExtractionRules.Role role = rules.role(keyword);
+            if (role == ExtractionRules.Role.CONDITION_PREFIX && start >= 0 && start < prefixStart) {
+                // The earliest prefix wins, which is not necessarily the first one to end.
+                prefixStart = start;
+                tableNameStart = start + rules.matcher().keyword(keyword).length();
+            } else if (role == ExtractionRules.Role.RELEASESTAND_MARKER && markerStart == Integer.MIN_VALUE) {
+                markerStart = start;
+            }
+        }
+    }
+
+    private static class HeaderFields {
+        private String tableName;
+        private String releasestand;
     }
 }
@@ -2,10 +2,14 @@ package com.example.dlautomation.logic.readers;
 
 import com.example.dlautomation.logic.logging.GlobalLogger;
 import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
 import org.apache.poi.xwpf.usermodel.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -13,11 +17,15 @@ import java.util.logging.Logger;
 
 public class DocxWordReader extends AbstractWordReader {
 
-    private static final Logger logger = GlobalLogger.getLogger();
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
 
     public DocxWordReader(String docPath) {
-        super(docPath);
-        logger.log(Level.INFO, "Initialized DocxWordReader for document: {0}", docPath);
+        this(docPath, ExtractionRules.defaults());
+    }
+
+    public DocxWordReader(String docPath, ExtractionRules rules) {
+        super(docPath, rules);
+        logger.log(Level.FINE, "Initialized DocxWordReader for document: {0}", docPath);
     }
 
     @Override
@@ -31,21 +39,7 @@ public class DocxWordReader extends AbstractWordReader {
 
         try (FileInputStream fis = new FileInputStream(docPath);
              XWPFDocument document = new XWPFDocument(fis)) {
-
-            for (XWPFTable table : document.getTables()) {
-                for (XWPFTableRow row : table.getRows()) {
-                    if (row.getTableCells().size() > 1) {
-                        XWPFTableCell cell = row.getCell(0);
-                        String cellText = cell.getText().trim();
-                        if (cellText.contains("Tabellenname/View")) {
-                            XWPFTableCell tableNameCell = row.getCell(1);
-                            String tableName = tableNameCell.getText().trim();
-                            logger.log(Level.INFO, "Table name found: {0}", tableName);
-                            return tableName;
-                        }
-                    }
-                }
-            }
+            return findTableName(document);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw e;
@@ -53,13 +47,14 @@ public class DocxWordReader extends AbstractWordReader {
             logger.log(Level.SEVERE, "Unexpected error processing document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw new IOException("Failed to extract table name", e);
         }
+    }
 
-        logger.log(Level.WARNING, "Table name not found in document: {0}", docPath);
-        return "Unknown Table Name";
+    private String findTableName(XWPFDocument document) {
+        return findHeader(document).tableName;
     }
 
     private boolean isTemporaryFile(String filePath) {
-        boolean isTempFile = filePath.startsWith("~$");
+        boolean isTempFile = Paths.get(filePath).getFileName().toString().startsWith("~$");
         if (isTempFile) {
             logger.log(Level.INFO, "File {0} is identified as a temporary file.", filePath);
         }
@@ -72,129 +67,147 @@ public class DocxWordReader extends AbstractWordReader {
 
         try (FileInputStream fis = new FileInputStream(docPath);
              XWPFDocument document = new XWPFDocument(fis)) {
+            return findReleasestand(document);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to extract releasestand from document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw e;
+        }
+    }
 
-            for (XWPFTable table : document.getTables()) {
-                for (XWPFTableRow row : table.getRows()) {
-                    if (row.getTableCells().size() > 1) {
-                        XWPFTableCell cell = row.getCell(0);
-                        String cellText = cell.getText().trim();
-                        if (cellText.contains("Releasestand")) {
-                            XWPFTableCell releasestandCell = row.getCell(1);
-                            String releasestand = releasestandCell.getText().trim();
-                            logger.log(Level.INFO, "Extracted releasestand: {0}", releasestand);
-                            return releasestand;
-                        }
+    private String findReleasestand(XWPFDocument document) {
+        return findHeader(document).releasestand;
+    }
+
+    /**
+     * Finds table name and Releasestand in one walk over the header rows, scanning each row's first cell
+     * once for the labels of the {@link ExtractionRules}; the value is the row's second cell.
+     */
+    private HeaderFields findHeader(XWPFDocument document) {
+        HeaderFields header = new HeaderFields();
+        for (XWPFTable table : document.getTables()) {
+            for (XWPFTableRow row : table.getRows()) {
+                if (row.getTableCells().size() > 1) {
+                    XWPFTableCell cell = row.getCell(0);
+                    int labels = rules.rolesIn(cell.getText().trim());
+                    if (header.tableName == null && ExtractionRules.Role.TABLE_NAME_LABEL.isIn(labels)) {
+                        header.tableName = row.getCell(1).getText().trim();
+                        logger.log(Level.INFO, "Table name found: {0}", header.tableName);
+                    }
+                    if (header.releasestand == null && ExtractionRules.Role.RELEASESTAND_LABEL.isIn(labels)) {
+                        header.releasestand = row.getCell(1).getText().trim();
+                        logger.log(Level.INFO, "Extracted releasestand: {0}", header.releasestand);
+                    }
+                    if (header.tableName != null && header.releasestand != null) {
+                        return header;
                     }
                 }
             }
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, "Failed to extract releasestand from document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
-            throw e;
         }
 
-        logger.log(Level.WARNING, "Releasestand not found in document: {0}", docPath);
-        return "Unknown Releasestand";
+        if (header.tableName == null) {
+            logger.log(Level.WARNING, "Table name not found in document: {0}", docPath);
+            header.tableName = "Unknown Table Name";
+        }
+        if (header.releasestand == null) {
+            logger.log(Level.WARNING, "Releasestand not found in document: {0}", docPath);
+            header.releasestand = "Unknown Releasestand";
+        }
+        return header;
     }
 
     @Override
     public List<ChangeInfo> getRedChanges(String tableName, String releasestand) throws IOException {
         logger.log(Level.INFO, "Extracting red changes from document: {0} for table: {1}", new Object[]{docPath, tableName});
-        List<ChangeInfo> changes = new ArrayList<>();
 
         try (FileInputStream fis = new FileInputStream(docPath);
              XWPFDocument document = new XWPFDocument(fis)) {
-
-            for (XWPFTable table : document.getTables()) {
-                for (XWPFTableRow row : table.getRows()) {
-                    if (row.getTableCells().size() > 1) {
-                        XWPFTableCell numberCell = row.getCell(0);
-                        XWPFTableCell changeCell = row.getCell(1);
-
-                        String changeNumber = numberCell.getText().trim();
-                        String changeText = getRedTextFromCell(changeCell);
-                        String wholeString = getWholeText(changeCell);
-
-                        boolean isFullyRed = getRedTextFromCell(changeCell).equals(changeCell.getText());
-                        String logik = determineLogik(changeCell);
-
-                        if (!changeText.isEmpty()) {
-                            logger.log(Level.INFO, "Red change found: Change Number: {0}, Change Text: {1}, Is Fully Red: {2}", new Object[]{changeNumber, changeText, isFullyRed});
-                            changes.add(new ChangeInfo(tableName, changeNumber, changeText, releasestand, getMappingName(), isFullyRed, logik, wholeString));
-                        }
-                    }
-                }
-            }
+            return collectRedChanges(document, tableName, releasestand);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to extract red changes from document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
             throw e;
         }
-
-        return changes;
     }
 
-    private String determineLogik(XWPFTableCell cell) {
-        StringBuilder cellText = new StringBuilder();
-        boolean isCrossedOut = false;
+    @Override
+    public DocumentExtraction extract() throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document: {0}", docPath);
 
-        for (XWPFParagraph paragraph : cell.getParagraphs()) {
-            for (XWPFRun run : paragraph.getRuns()) {
-                String color = run.getColor();
-                if (color != null && "FF0000".equalsIgnoreCase(color)) {
-                    String text = run.getText(0);
-                    if (text != null) {
-                        cellText.append(text).append(" ");
-                    }
+        if (isTemporaryFile(docPath)) {
+            logger.log(Level.WARNING, "Document {0} is a temporary file or not a valid Word document.", docPath);
+            throw new IOException("File is a temporary document or not a valid Word file.");
+        }
 
-                    if (run.isStrikeThrough()) {
-                        isCrossedOut = true;
-                    }
-                }
-            }
+        try (FileInputStream fis = new FileInputStream(docPath)) {
+            return extractFrom(fis);
         }
+    }
 
-        String logik = isCrossedOut ? "Rückbau Logik" : "Neue Logik";
-        logger.log(Level.INFO, "Determined logic: {0}", logik);
-        return logik;
+    @Override
+    public DocumentExtraction extract(byte[] content) throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document content: {0}", docPath);
+        return extractFrom(new ByteArrayInputStream(content));
     }
 
-    private String getRedTextFromCell(XWPFTableCell cell) {
-        StringBuilder redText = new StringBuilder();
-        boolean hasRedText = false;
+    private DocumentExtraction extractFrom(InputStream in) throws IOException {
+        long openStart = System.nanoTime();
+        try (XWPFDocument document = new XWPFDocument(in)) {
+            long scanStart = System.nanoTime();
+            statistics.recordOpen(scanStart - openStart);
+            HeaderFields header = findHeader(document);
+            List<ChangeInfo> changes = collectRedChanges(document, header.tableName, header.releasestand);
+            statistics.recordScan(System.nanoTime() - scanStart);
+            return new DocumentExtraction(header.tableName, header.releasestand, changes);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error processing document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw new IOException("Failed to extract document", e);
+        }
+    }
 
-        for (XWPFParagraph paragraph : cell.getParagraphs()) {
-            for (XWPFRun run : paragraph.getRuns()) {
-                if ("FF0000".equalsIgnoreCase(run.getColor())) {
-                    redText.append(run.getText(0)).append(" ");
-                    hasRedText = true;
+    private List<ChangeInfo> collectRedChanges(XWPFDocument document, String tableName, String releasestand) {
+        List<ChangeInfo> changes = new ArrayList<>();
+        CellAnalyzer analyzer = new CellAnalyzer();
+
+        for (XWPFTable table : document.getTables()) {
+            statistics.tableVisited();
+            for (XWPFTableRow row : table.getRows()) {
+                statistics.rowVisited();
+                checkCancelled();
+                if (row.getTableCells().size() > 1) {
+                    analyze(row.getCell(1), analyzer);
+                    statistics.runsVisited(analyzer.runCount());
+
+                    String changeText = analyzer.redText();
+                    if (!changeText.isEmpty()) {
+                        String changeNumber = row.getCell(0).getText().trim();
+                        boolean isFullyRed = analyzer.isFullyRed();
+                        if (logger.isLoggable(Level.FINE)) {
+                            logger.log(Level.FINE, "Red change found: Change Number: {0}, Change Text: {1}, Is Fully Red: {2}", new Object[]{changeNumber, changeText, isFullyRed});
+                        }
+                        changes.add(new ChangeInfo(tableName, changeNumber, changeText, releasestand, getMappingName(),
+                                isFullyRed, analyzer.logik(), analyzer.wholeText()));
+                    }
                 }
             }
         }
 
-        if (hasRedText) {
-            logger.log(Level.INFO, "Red text found in cell: {0}", redText.toString().trim());
-        } else {
-            logger.log(Level.FINE, "No red text found in cell.");
-        }
-
-        return redText.toString().trim();
+        return changes;
     }
 
-    private String getWholeText(XWPFTableCell cell) {
-        StringBuilder cellText = new StringBuilder();
-        boolean hasRedText = false;
-
+    private static void analyze(XWPFTableCell cell, CellAnalyzer analyzer) {
+        analyzer.reset();
         for (XWPFParagraph paragraph : cell.getParagraphs()) {
             for (XWPFRun run : paragraph.getRuns()) {
-                String color = run.getColor();
-                if ("FF0000".equalsIgnoreCase(color)) {
-                    hasRedText = true;
-                }
-                cellText.append(run.getText(0));
+                boolean isRed = CellAnalyzer.isRed(run.getColor());
+                analyzer.addRun(run.getText(0), isRed, isRed && run.isStrikeThrough());
             }
         }
+    }
 
-        String wholeText = cellText.toString().trim();
-        logger.log(Level.INFO, "Extracted whole text from cell: {0}", wholeText);
-        return hasRedText ? wholeText : "";
+    private static class HeaderFields {
+        private String tableName;
+        private String releasestand;
     }
 }
@@ -0,0 +1,208 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.ContentHasher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The keywords the readers recognise a document's header fields by, and the change numbers dropped
+ * after extraction. The defaults come from {@value #DEFAULT_RESOURCE} on the classpath; a rules file
+ * given to {@link #load(Path)} overrides single entries of it. All keywords are compiled into one
+ * {@link KeywordMatcher}, so a cell or paragraph is scanned once for all of them.
+ * <p>
+ * List entries are separated by ','; keywords are matched case-sensitively anywhere in the text.
+ */
+public final class ExtractionRules {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
+
+    public static final String DEFAULT_RESOURCE = "extraction-rules.properties";
+
+    enum Role {
+        /** .docx: first cell of the header row whose second cell holds the table name. */
+        TABLE_NAME_LABEL("docx.tableName.labels"),
+        /** .docx: first cell of the header row whose second cell holds the Releasestand. */
+        RELEASESTAND_LABEL("docx.releasestand.labels"),
+        /** .doc: the table name follows this word up to the next '.'. */
+        CONDITION_PREFIX("doc.tableName.prefixes"),
+        /** .doc: where the Releasestand pattern starts to match. */
+        RELEASESTAND_MARKER("doc.releasestand.marker");
+
+        private final String property;
+
+        Role(String property) {
+            this.property = property;
+        }
+
+        boolean isIn(int roles) {
+            return (roles & (1 << ordinal())) != 0;
+        }
+    }
+
+    private static final String RELEASESTAND_PATTERN = "doc.releasestand.pattern";
+    private static final String EXCLUDED_CHANGE_NUMBERS = "filter.excludedChangeNumbers";
+
+    private final KeywordMatcher matcher;
+    private final Role[] roles;
+    private final Pattern releasestandPattern;
+    private final Set<String> excludedChangeNumbers = new HashSet<>();
+    private final long fingerprint;
+
+    private ExtractionRules(Properties properties) {
+        List<String> keywords = new ArrayList<>();
+        List<Role> keywordRoles = new ArrayList<>();
+        for (Role role : Role.values()) {
+            List<String> values = role == Role.RELEASESTAND_MARKER
+                    ? List.of(required(properties, role.property))
+                    : list(properties, role.property);
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("No keyword given for " + role.property);
+            }
+            for (String value : values) {
+                keywords.add(value);
+                keywordRoles.add(role);
+            }
+        }
+        this.matcher = new KeywordMatcher(keywords);
+        this.roles = keywordRoles.toArray(new Role[0]);
+
+        String pattern = required(properties, RELEASESTAND_PATTERN);
+        try {
+            this.releasestandPattern = Pattern.compile(pattern);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid " + RELEASESTAND_PATTERN + ": " + pattern, e);
+        }
+        if (releasestandPattern.matcher("").groupCount() < 1) {
+            throw new IllegalArgumentException(RELEASESTAND_PATTERN + " needs a group for the Releasestand: " + pattern);
+        }
+        for (String changeNumber : list(properties, EXCLUDED_CHANGE_NUMBERS)) {
+            excludedChangeNumbers.add(changeNumber.toLowerCase(Locale.ROOT));
+        }
+        this.fingerprint = fingerprint(keywords, keywordRoles, pattern);
+    }
+
+    /**
+     * The rules from {@value #DEFAULT_RESOURCE}.
+     */
+    public static ExtractionRules defaults() {
+        return Defaults.RULES;
+    }
+
+    /**
+     * The default rules with the entries of {@code rulesFile} in place of the default ones.
+     */
+    public static ExtractionRules load(Path rulesFile) throws IOException {
+        Properties properties = defaultProperties();
+        try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            ExtractionRules rules = new ExtractionRules(properties);
+            logger.log(Level.INFO, "Loaded extraction rules from {0}", rulesFile);
+            return rules;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid extraction rules in " + rulesFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    static ExtractionRules of(Properties overrides) {
+        Properties properties = defaultProperties();
+        properties.putAll(overrides);
+        return new ExtractionRules(properties);
+    }
+
+    /**
+     * Whether changes with this change number are dropped from the results, ignoring case.
+     */
+    public boolean isExcludedChangeNumber(String changeNumber) {
+        return changeNumber != null && excludedChangeNumbers.contains(changeNumber.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Identifies the rules that affect what the readers extract, so cached extractions made under
+     * other rules can be told apart. The change number filter runs after the cache and is left out.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    KeywordMatcher matcher() {
+        return matcher;
+    }
+
+    Role role(int keyword) {
+        return roles[keyword];
+    }
+
+    Pattern releasestandPattern() {
+        return releasestandPattern;
+    }
+
+    /**
+     * The roles of all keywords found in {@code text}, as a bit set to test with {@link Role#isIn(int)}.
+     */
+    int rolesIn(CharSequence text) {
+        int[] found = new int[1];
+        matcher.scan(text, (keyword, start) -> found[0] |= 1 << roles[keyword].ordinal());
+        return found[0];
+    }
+
+    private static List<String> list(Properties properties, String key) {
+        return Arrays.stream(properties.getProperty(key, "").split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key, "").trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("No value given for " + key);
+        }
+        return value;
+    }
+
+    private static long fingerprint(List<String> keywords, List<Role> keywordRoles, String pattern) {
+        long hash = ContentHasher.FNV_OFFSET_BASIS;
+        for (int i = 0; i < keywords.size(); i++) {
+            hash = ContentHasher.fnv1a(hash, keywordRoles.get(i).name());
+            hash = ContentHasher.fnv1a(hash, keywords.get(i));
+        }
+        return ContentHasher.fnv1a(hash, pattern);
+    }
+
+    private static Properties defaultProperties() {
+        Properties properties = new Properties();
+        try (InputStream in = ExtractionRules.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(DEFAULT_RESOURCE + " not found on the classpath");
+            }
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + DEFAULT_RESOURCE, e);
+        }
+        return properties;
+    }
+
+    private static final class Defaults {
+        private static final ExtractionRules RULES = new ExtractionRules(defaultProperties());
+    }
+}
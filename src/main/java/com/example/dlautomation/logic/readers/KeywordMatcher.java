@@ -0,0 +1,138 @@
+package com.example.dlautomation.logic.readers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds any number of keywords in one pass over a text (Aho-Corasick). The keywords are compiled once
+ * into a deterministic automaton, so scanning costs one table lookup per character however many
+ * keywords there are. The automaton state can be carried from one text into the next, which finds a
+ * keyword split across two paragraphs as well.
+ */
+public final class KeywordMatcher {
+
+    public static final int INITIAL_STATE = 0;
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param keyword index of the keyword in the list the matcher was built from
+         * @param start   where the keyword starts in the scanned text; negative if it began in an
+         *                earlier text whose end state was passed in
+         */
+        void onMatch(int keyword, int start);
+    }
+
+    private final String[] keywords;
+    // Characters that occur in no keyword share class 0.
+    private final short[] charClasses = new short[Character.MAX_VALUE + 1];
+    private final int classCount;
+    private final int[] transitions;
+    private final int[][] matches;
+
+    public KeywordMatcher(List<String> keywords) {
+        this.keywords = keywords.toArray(new String[0]);
+        int classes = 1;
+        for (String keyword : this.keywords) {
+            if (keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must not be empty");
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (charClasses[c] == 0) {
+                    charClasses[c] = (short) classes++;
+                }
+            }
+        }
+        this.classCount = classes;
+
+        // Trie first, with -1 for missing edges.
+        List<int[]> edges = new ArrayList<>();
+        List<int[]> output = new ArrayList<>();
+        edges.add(newRow());
+        output.add(NO_MATCHES);
+        for (int k = 0; k < this.keywords.length; k++) {
+            int state = INITIAL_STATE;
+            for (char c : this.keywords[k].toCharArray()) {
+                int[] row = edges.get(state);
+                if (row[charClasses[c]] == -1) {
+                    row[charClasses[c]] = edges.size();
+                    edges.add(newRow());
+                    output.add(NO_MATCHES);
+                }
+                state = row[charClasses[c]];
+            }
+            output.set(state, append(output.get(state), k));
+        }
+
+        // Breadth first, so a state's failure state is complete before the state itself: missing edges
+        // take the failure state's edge, and a state also reports what its failure state reports.
+        int[] failure = new int[edges.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(INITIAL_STATE);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = edges.get(state);
+            for (int c = 0; c < classCount; c++) {
+                int next = row[c];
+                if (next == -1) {
+                    row[c] = state == INITIAL_STATE ? INITIAL_STATE : edges.get(failure[state])[c];
+                } else {
+                    failure[next] = state == INITIAL_STATE ? INITIAL_STATE : edges.get(failure[state])[c];
+                    for (int k : output.get(failure[next])) {
+                        output.set(next, append(output.get(next), k));
+                    }
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = new int[edges.size() * classCount];
+        for (int state = 0; state < edges.size(); state++) {
+            System.arraycopy(edges.get(state), 0, transitions, state * classCount, classCount);
+        }
+        this.matches = output.toArray(new int[0][]);
+    }
+
+    /**
+     * Scans {@code text} starting from {@code state} and reports every keyword occurrence, overlapping
+     * ones included, in the order they end. Returns the state to continue with in the next text.
+     */
+    public int scan(CharSequence text, int state, MatchHandler handler) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * classCount + charClasses[text.charAt(i)]];
+            for (int keyword : matches[state]) {
+                handler.onMatch(keyword, i - keywords[keyword].length() + 1);
+            }
+        }
+        return state;
+    }
+
+    public void scan(CharSequence text, MatchHandler handler) {
+        scan(text, INITIAL_STATE, handler);
+    }
+
+    public String keyword(int index) {
+        return keywords[index];
+    }
+
+    public int keywordCount() {
+        return keywords.length;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+}
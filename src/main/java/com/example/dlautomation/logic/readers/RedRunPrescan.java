@@ -0,0 +1,128 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Byte-level check whether a document can contain a red run at all, so documents without red changes
+ * skip the full parse. It may report red where there is none (e.g. a red table shading), but never
+ * the other way round for the colours the readers test:
+ * <ul>
+ * <li>.docx: word/document.xml is inflated and searched for {@code FF0000} in any case, the value of
+ * {@code <w:color w:val="FF0000"/>}.</li>
+ * <li>.doc: the WordDocument and table streams are searched for sprmCIco with operand 6, the only way
+ * a run or a style gets the colour index {@link CellAnalyzer#isRed(int)} tests.</li>
+ * </ul>
+ * Documents that cannot be scanned are reported as possibly red, so the reader reports the error. That
+ * includes encrypted .doc files, whose streams are ciphertext.
+ */
+public final class RedRunPrescan {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
+
+    private static final byte[] RED_HEX = {'F', 'F', '0', '0', '0', '0'};
+    // sprmCIco (0x2A42, little endian) followed by its one-byte operand: colour index 6, red.
+    private static final byte[] RED_ICO_SPRM = {0x42, 0x2A, 0x06};
+    // fEncrypted in the flags of the FIB at the start of the WordDocument stream.
+    private static final int FIB_ENCRYPTED_OFFSET = 0x0B;
+    private static final int FIB_ENCRYPTED_MASK = 0x01;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private RedRunPrescan() {
+    }
+
+    public static boolean mayContainRed(String docPath, byte[] content) {
+        String lowerPath = docPath.toLowerCase(Locale.ROOT);
+        try {
+            if (lowerPath.endsWith(".docx")) {
+                return docxMayContainRed(content);
+            } else if (lowerPath.endsWith(".doc")) {
+                return docMayContainRed(content);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.FINE, "Pre-scan of " + docPath + " failed, leaving it to the reader", e);
+        }
+        return true;
+    }
+
+    private static boolean docxMayContainRed(byte[] content) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if ("word/document.xml".equals(entry.getName())) {
+                    return contains(zip, RED_HEX, true);
+                }
+            }
+        }
+        // Not a regular .docx; let the reader decide.
+        return true;
+    }
+
+    private static boolean docMayContainRed(byte[] content) throws IOException {
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(new ByteArrayInputStream(content))) {
+            DirectoryNode root = fileSystem.getRoot();
+            if (!root.hasEntry("WordDocument") || isEncrypted(root)) {
+                return true;
+            }
+            for (String stream : new String[]{"WordDocument", "1Table", "0Table"}) {
+                if (root.hasEntry(stream)) {
+                    try (DocumentInputStream in = root.createDocumentInputStream(stream)) {
+                        if (contains(in, RED_ICO_SPRM, false)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static boolean isEncrypted(DirectoryNode root) throws IOException {
+        try (DocumentInputStream in = root.createDocumentInputStream("WordDocument")) {
+            byte[] fib = new byte[FIB_ENCRYPTED_OFFSET + 1];
+            in.readFully(fib);
+            return (fib[FIB_ENCRYPTED_OFFSET] & FIB_ENCRYPTED_MASK) != 0;
+        }
+    }
+
+    // Streaming search; the patterns have no inner repetition except the leading 'FF', so on a mismatch
+    // the match can only restart at the current byte.
+    static boolean contains(InputStream in, byte[] pattern, boolean ignoreCase) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int matched = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = ignoreCase ? upperCase(buffer[i]) : buffer[i];
+                while (true) {
+                    if (b == pattern[matched]) {
+                        if (++matched == pattern.length) {
+                            return true;
+                        }
+                        break;
+                    }
+                    if (matched == 0) {
+                        break;
+                    }
+                    // "FFF": the last two bytes may still start the pattern.
+                    matched = matched == 2 && pattern[0] == pattern[1] && b == pattern[0] ? 1 : 0;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte upperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? (byte) (b - ('a' - 'A')) : b;
+    }
+}
@@ -0,0 +1,524 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import org.apache.poi.util.LocaleUtil;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * .docx reader that streams the main document part with StAX instead of building an XWPFDocument.
+ * It reproduces what {@link DocxWordReader} sees through XWPF: top-level body tables, their direct
+ * rows and cells, the runs POI exposes per paragraph (plain, hyperlink, simple field, tracked change
+ * and smart tag runs) and the paragraph text rules (tabs, breaks, caps, deleted runs, run-level content
+ * controls). Footnote bodies, picture text and phonetic guides, which XWPF folds into paragraph text,
+ * are not reproduced; they only matter for the table name and Releasestand cells that contain them.
+ */
+public class StaxDocxWordReader extends AbstractWordReader {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.READERS);
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String OFFICE_DOCUMENT_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument";
+    private static final String DEFAULT_MAIN_PART = "word/document.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    public StaxDocxWordReader(String docPath) {
+        this(docPath, ExtractionRules.defaults());
+    }
+
+    public StaxDocxWordReader(String docPath, ExtractionRules rules) {
+        super(docPath, rules);
+        logger.log(Level.FINE, "Initialized StaxDocxWordReader for document: {0}", docPath);
+    }
+
+    @Override
+    public String extractTableName() throws IOException {
+        return extract().getTableName();
+    }
+
+    @Override
+    public String extractReleasestand() throws IOException {
+        return extract().getReleasestand();
+    }
+
+    @Override
+    public List<ChangeInfo> getRedChanges(String tableName, String releasestand) throws IOException {
+        logger.log(Level.INFO, "Extracting red changes from document: {0} for table: {1}", new Object[]{docPath, tableName});
+        return toChangeInfos(scan().pendingChanges, tableName, releasestand);
+    }
+
+    @Override
+    public DocumentExtraction extract() throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document: {0}", docPath);
+        return toExtraction(scan());
+    }
+
+    @Override
+    public DocumentExtraction extract(byte[] content) throws IOException {
+        logger.log(Level.INFO, "Extracting table name, releasestand and red changes from document content: {0}", docPath);
+        return toExtraction(scan(content));
+    }
+
+    private DocumentExtraction toExtraction(DocumentScan scan) {
+        String tableName = scan.tableName;
+        if (tableName == null) {
+            logger.log(Level.WARNING, "Table name not found in document: {0}", docPath);
+            tableName = "Unknown Table Name";
+        }
+        String releasestand = scan.releasestand;
+        if (releasestand == null) {
+            logger.log(Level.WARNING, "Releasestand not found in document: {0}", docPath);
+            releasestand = "Unknown Releasestand";
+        }
+        return new DocumentExtraction(tableName, releasestand, toChangeInfos(scan.pendingChanges, tableName, releasestand));
+    }
+
+    private List<ChangeInfo> toChangeInfos(List<PendingChange> pendingChanges, String tableName, String releasestand) {
+        List<ChangeInfo> changes = new ArrayList<>(pendingChanges.size());
+        for (PendingChange change : pendingChanges) {
+            changes.add(new ChangeInfo(tableName, change.changeNumber, change.changeText, releasestand, getMappingName(),
+                    change.isFullyRed, change.logik, change.wholeString));
+        }
+        return changes;
+    }
+
+    private DocumentScan scan() throws IOException {
+        if (isTemporaryFile(docPath)) {
+            logger.log(Level.WARNING, "Document {0} is a temporary file or not a valid Word document.", docPath);
+            throw new IOException("File is a temporary document or not a valid Word file.");
+        }
+
+        long openStart = System.nanoTime();
+        try (ZipFile zip = new ZipFile(docPath)) {
+            String mainPart = findMainDocumentPart(zip);
+            ZipEntry entry = zip.getEntry(mainPart);
+            if (entry == null) {
+                throw new IOException("Main document part " + mainPart + " not found in " + docPath);
+            }
+            long scanStart = System.nanoTime();
+            statistics.recordOpen(scanStart - openStart);
+
+            DocumentScan scan;
+            try (InputStream in = zip.getInputStream(entry)) {
+                scan = scanMainPart(in);
+            }
+            statistics.recordScan(System.nanoTime() - scanStart);
+            return scan;
+        } catch (XMLStreamException e) {
+            logger.log(Level.SEVERE, "Failed to parse document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw new IOException("Failed to parse document " + docPath, e);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw e;
+        }
+    }
+
+    // The package is read from memory with ZipInputStream: once to find the main part through
+    // _rels/.rels, which comes first in Word's packages, and once more up to the main part.
+    private DocumentScan scan(byte[] content) throws IOException {
+        long openStart = System.nanoTime();
+        try {
+            String mainPart = DEFAULT_MAIN_PART;
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+                if (seekEntry(zip, "_rels/.rels")) {
+                    mainPart = findMainDocumentPart(zip);
+                }
+            }
+
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+                if (!seekEntry(zip, mainPart)) {
+                    throw new IOException("Main document part " + mainPart + " not found in " + docPath);
+                }
+                long scanStart = System.nanoTime();
+                statistics.recordOpen(scanStart - openStart);
+                DocumentScan scan = scanMainPart(zip);
+                statistics.recordScan(System.nanoTime() - scanStart);
+                return scan;
+            }
+        } catch (XMLStreamException e) {
+            logger.log(Level.SEVERE, "Failed to parse document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw new IOException("Failed to parse document " + docPath, e);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load document: {0}. Error: {1}", new Object[]{docPath, e.getMessage()});
+            throw e;
+        }
+    }
+
+    private boolean isTemporaryFile(String filePath) {
+        boolean isTempFile = Paths.get(filePath).getFileName().toString().startsWith("~$");
+        if (isTempFile) {
+            logger.log(Level.INFO, "File {0} is identified as a temporary file.", filePath);
+        }
+        return isTempFile;
+    }
+
+    private DocumentScan scanMainPart(InputStream in) throws XMLStreamException {
+        DocumentScan scan = new DocumentScan();
+        XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            readDocument(xml, scan);
+        } finally {
+            xml.close();
+        }
+        return scan;
+    }
+
+    private static boolean seekEntry(ZipInputStream zip, String name) throws IOException {
+        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+            if (entry.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String findMainDocumentPart(ZipFile zip) throws IOException, XMLStreamException {
+        ZipEntry rels = zip.getEntry("_rels/.rels");
+        if (rels == null) {
+            return DEFAULT_MAIN_PART;
+        }
+        try (InputStream in = zip.getInputStream(rels)) {
+            return findMainDocumentPart(in);
+        }
+    }
+
+    private static String findMainDocumentPart(InputStream in) throws XMLStreamException {
+        XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT
+                        && REL_NS.equals(xml.getNamespaceURI()) && "Relationship".equals(xml.getLocalName())
+                        && OFFICE_DOCUMENT_REL.equals(xml.getAttributeValue(null, "Type"))) {
+                    String target = xml.getAttributeValue(null, "Target");
+                    return target.startsWith("/") ? target.substring(1) : target;
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return DEFAULT_MAIN_PART;
+    }
+
+    private void readDocument(XMLStreamReader xml, DocumentScan scan) throws XMLStreamException {
+        while (xml.hasNext()) {
+            if (xml.next() == XMLStreamConstants.START_ELEMENT && isW(xml, "body")) {
+                while (nextChild(xml)) {
+                    if (isW(xml, "tbl")) {
+                        readTable(xml, scan);
+                    } else {
+                        skipElement(xml);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void readTable(XMLStreamReader xml, DocumentScan scan) throws XMLStreamException {
+        statistics.tableVisited();
+        while (nextChild(xml)) {
+            if (isW(xml, "tr")) {
+                readRow(xml, scan);
+            } else {
+                skipElement(xml);
+            }
+        }
+    }
+
+    private void readRow(XMLStreamReader xml, DocumentScan scan) throws XMLStreamException {
+        CellContent numberCell = new CellContent();
+        CellContent changeCell = new CellContent();
+        int cellCount = 0;
+        statistics.rowVisited();
+        checkCancelled();
+
+        while (nextChild(xml)) {
+            if (isW(xml, "tc")) {
+                readCell(xml, cellCount == 0 ? numberCell : cellCount == 1 ? changeCell : null);
+                cellCount++;
+            } else {
+                skipElement(xml);
+            }
+        }
+
+        if (cellCount > 1) {
+            onRow(numberCell, changeCell, scan);
+        }
+    }
+
+    private void onRow(CellContent numberCell, CellContent changeCell, DocumentScan scan) {
+        String numberText = numberCell.text.toString().trim();
+        int labels = scan.tableName == null || scan.releasestand == null ? rules.rolesIn(numberText) : 0;
+        if (scan.tableName == null && ExtractionRules.Role.TABLE_NAME_LABEL.isIn(labels)) {
+            scan.tableName = changeCell.text.toString().trim();
+            logger.log(Level.INFO, "Table name found: {0}", scan.tableName);
+        }
+        if (scan.releasestand == null && ExtractionRules.Role.RELEASESTAND_LABEL.isIn(labels)) {
+            scan.releasestand = changeCell.text.toString().trim();
+            logger.log(Level.INFO, "Extracted releasestand: {0}", scan.releasestand);
+        }
+
+        String changeText = changeCell.runs.redText();
+        if (!changeText.isEmpty()) {
+            boolean isFullyRed = changeCell.runs.isFullyRed();
+            String logik = changeCell.runs.logik();
+            String wholeString = changeCell.runs.wholeText();
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "Red change found: Change Number: {0}, Change Text: {1}, Is Fully Red: {2}", new Object[]{numberText, changeText, isFullyRed});
+            }
+            scan.pendingChanges.add(new PendingChange(numberText, changeText, isFullyRed, logik, wholeString));
+        }
+    }
+
+    private void readCell(XMLStreamReader xml, CellContent cell) throws XMLStreamException {
+        if (cell == null) {
+            skipElement(xml);
+            return;
+        }
+        while (nextChild(xml)) {
+            if (isW(xml, "p")) {
+                while (nextChild(xml)) {
+                    readParagraphContent(xml, cell);
+                }
+            } else {
+                skipElement(xml);
+            }
+        }
+    }
+
+    // Mirrors XWPFParagraph.buildRunsInOrderFromXml: which elements contribute runs and text.
+    private void readParagraphContent(XMLStreamReader xml, CellContent cell) throws XMLStreamException {
+        if (!W_NS.equals(xml.getNamespaceURI())) {
+            skipElement(xml);
+            return;
+        }
+        switch (xml.getLocalName()) {
+            case "r" -> readRun(xml, cell, false);
+            case "hyperlink", "fldSimple" -> {
+                while (nextChild(xml)) {
+                    if (isW(xml, "r")) {
+                        readRun(xml, cell, false);
+                    } else {
+                        skipElement(xml);
+                    }
+                }
+            }
+            case "ins", "del", "moveFrom", "moveTo" -> {
+                while (nextChild(xml)) {
+                    if (isW(xml, "r")) {
+                        readRun(xml, cell, false);
+                    } else if (isW(xml, "ins")) {
+                        while (nextChild(xml)) {
+                            readParagraphContent(xml, cell);
+                        }
+                    } else {
+                        skipElement(xml);
+                    }
+                }
+            }
+            case "smartTag" -> {
+                while (nextChild(xml)) {
+                    readParagraphContent(xml, cell);
+                }
+            }
+            case "sdt" -> readRunContentControl(xml, cell);
+            default -> skipElement(xml);
+        }
+    }
+
+    // Run-level content controls only add text, their runs are not part of XWPFParagraph.getRuns().
+    private void readRunContentControl(XMLStreamReader xml, CellContent cell) throws XMLStreamException {
+        while (nextChild(xml)) {
+            if (isW(xml, "sdtContent")) {
+                while (nextChild(xml)) {
+                    if (isW(xml, "r")) {
+                        readRun(xml, cell, true);
+                    } else if (isW(xml, "sdt")) {
+                        readRunContentControl(xml, cell);
+                    } else {
+                        skipElement(xml);
+                    }
+                }
+            } else {
+                skipElement(xml);
+            }
+        }
+    }
+
+    private void readRun(XMLStreamReader xml, CellContent cell, boolean textOnly) throws XMLStreamException {
+        statistics.runsVisited(1);
+        RunProperties properties = new RunProperties();
+        StringBuilder text = new StringBuilder();
+        String firstText = null;
+        boolean hasDeletedText = false;
+
+        while (nextChild(xml)) {
+            if (!W_NS.equals(xml.getNamespaceURI())) {
+                skipElement(xml);
+                continue;
+            }
+            switch (xml.getLocalName()) {
+                case "rPr" -> readRunProperties(xml, properties);
+                case "t" -> {
+                    String value = xml.getElementText();
+                    if (firstText == null) {
+                        firstText = value;
+                    }
+                    text.append(value);
+                }
+                case "delText" -> {
+                    hasDeletedText = true;
+                    text.append(xml.getElementText());
+                }
+                case "delInstrText" -> text.append(xml.getElementText());
+                case "tab", "ptab" -> {
+                    text.append('\t');
+                    skipElement(xml);
+                }
+                case "br", "cr" -> {
+                    text.append('\n');
+                    skipElement(xml);
+                }
+                case "footnoteReference", "endnoteReference" -> {
+                    String prefix = "footnoteReference".equals(xml.getLocalName()) ? "[footnoteRef:" : "[endnoteRef:";
+                    text.append(prefix).append(xml.getAttributeValue(W_NS, "id")).append(']');
+                    skipElement(xml);
+                }
+                default -> skipElement(xml);
+            }
+        }
+
+        String runText = properties.isCapitalized
+                ? text.toString().toUpperCase(LocaleUtil.getUserLocale())
+                : text.toString();
+        if (textOnly) {
+            cell.text.append(runText);
+            return;
+        }
+        if (!hasDeletedText) {
+            cell.text.append(runText);
+        }
+        boolean isRed = CellAnalyzer.isRed(properties.color);
+        cell.runs.addRun(firstText, isRed, isRed && properties.isStrikeThrough);
+    }
+
+    private void readRunProperties(XMLStreamReader xml, RunProperties properties) throws XMLStreamException {
+        boolean colorSeen = false;
+        boolean strikeSeen = false;
+        boolean capsSeen = false;
+        boolean smallCapsSeen = false;
+
+        while (nextChild(xml)) {
+            if (isW(xml, "color") && !colorSeen) {
+                colorSeen = true;
+                properties.color = xml.getAttributeValue(W_NS, "val");
+            } else if (isW(xml, "strike") && !strikeSeen) {
+                strikeSeen = true;
+                properties.isStrikeThrough = isOn(xml);
+            } else if (isW(xml, "caps") && !capsSeen) {
+                capsSeen = true;
+                properties.isCapitalized |= isOn(xml);
+            } else if (isW(xml, "smallCaps") && !smallCapsSeen) {
+                smallCapsSeen = true;
+                properties.isCapitalized |= isOn(xml);
+            }
+            skipElement(xml);
+        }
+    }
+
+    private static boolean isOn(XMLStreamReader xml) {
+        String value = xml.getAttributeValue(W_NS, "val");
+        return value == null || "true".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value)
+                || "x".equalsIgnoreCase(value) || "1".equals(value);
+    }
+
+    private static boolean isW(XMLStreamReader xml, String localName) {
+        return localName.equals(xml.getLocalName()) && W_NS.equals(xml.getNamespaceURI());
+    }
+
+    // Advances to the next child element of the current element; false once its end tag is reached.
+    private static boolean nextChild(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static class DocumentScan {
+        private String tableName;
+        private String releasestand;
+        private final List<PendingChange> pendingChanges = new ArrayList<>();
+    }
+
+    // Full cell text for the header rows; the runs POI would expose go to the analyzer.
+    private static class CellContent {
+        private final StringBuilder text = new StringBuilder();
+        private final CellAnalyzer runs = new CellAnalyzer();
+    }
+
+    private static class RunProperties {
+        private String color;
+        private boolean isStrikeThrough;
+        private boolean isCapitalized;
+    }
+
+    private static class PendingChange {
+        private final String changeNumber;
+        private final String changeText;
+        private final boolean isFullyRed;
+        private final String logik;
+        private final String wholeString;
+
+        private PendingChange(String changeNumber, String changeText, boolean isFullyRed, String logik, String wholeString) {
+            this.changeNumber = changeNumber;
+            this.changeText = changeText;
+            this.isFullyRed = isFullyRed;
+            this.logik = logik;
+            this.wholeString = wholeString;
+        }
+    }
+}
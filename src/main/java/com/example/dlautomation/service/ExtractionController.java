@@ -0,0 +1,109 @@
+package com.example.dlautomation.service;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * HTTP API of the extraction service:
+ * <ul>
+ *     <li>{@code POST /api/jobs} with {@code {"folder": "...", "include": [...], "exclude": [...]}} queues a job</li>
+ *     <li>{@code GET /api/jobs/{id}} returns its status</li>
+ *     <li>{@code GET /api/jobs/{id}/workbook} downloads the change workbook once the job succeeded</li>
+ *     <li>{@code DELETE /api/jobs/{id}} removes a finished job and its workbook</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class ExtractionController {
+
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ExtractionJobService jobService;
+
+    public ExtractionController(ExtractionJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExtractionJob> submit(@RequestBody ExtractionRequest request) {
+        if (request.getFolder() == null || request.getFolder().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "folder is required");
+        }
+        ExtractionJob job;
+        try {
+            job = jobService.submit(Paths.get(request.getFolder()), nonNull(request.getInclude()), nonNull(request.getExclude()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping
+    public Collection<ExtractionJob> list() {
+        return jobService.list();
+    }
+
+    @GetMapping("/{id}")
+    public ExtractionJob status(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    @GetMapping("/{id}/workbook")
+    public ResponseEntity<Resource> workbook(@PathVariable String id) {
+        ExtractionJob job = findJob(id);
+        if (job.getStatus() != ExtractionJob.Status.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is " + job.getStatus());
+        }
+        if (!job.isHasWorkbook()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " found no documents");
+        }
+        return ResponseEntity.ok()
+                .contentType(XLSX)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("changes-" + id + ".xlsx").build().toString())
+                .body(new FileSystemResource(job.getOutputFile()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) throws IOException {
+        try {
+            if (!jobService.delete(id)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No job " + id);
+            }
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ExtractionJob findJob(String id) {
+        return jobService.find(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No job " + id));
+    }
+
+    private static List<String> nonNull(List<String> globs) {
+        return globs != null ? globs : List.of();
+    }
+}
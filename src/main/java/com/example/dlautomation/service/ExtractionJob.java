@@ -0,0 +1,113 @@
+package com.example.dlautomation.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One submitted folder extraction. Written by the worker running it and read by status requests,
+ * so the mutable state is volatile.
+ */
+public class ExtractionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final Path folder;
+    private final List<String> includeGlobs;
+    private final List<String> excludeGlobs;
+    private final Path outputFile;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int documents;
+    private volatile int failedDocuments;
+    private volatile boolean hasWorkbook;
+    private volatile String error;
+
+    public ExtractionJob(String id, Path folder, List<String> includeGlobs, List<String> excludeGlobs, Path outputFile) {
+        this.id = id;
+        this.folder = folder;
+        this.includeGlobs = includeGlobs;
+        this.excludeGlobs = excludeGlobs;
+        this.outputFile = outputFile;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void succeeded(int documents, int failedDocuments, boolean hasWorkbook) {
+        this.documents = documents;
+        this.failedDocuments = failedDocuments;
+        this.hasWorkbook = hasWorkbook;
+        finishedAt = Instant.now();
+        status = Status.SUCCEEDED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFolder() {
+        return folder.toString();
+    }
+
+    public List<String> getIncludeGlobs() {
+        return includeGlobs;
+    }
+
+    public List<String> getExcludeGlobs() {
+        return excludeGlobs;
+    }
+
+    @JsonIgnore
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public int getFailedDocuments() {
+        return failedDocuments;
+    }
+
+    public boolean isHasWorkbook() {
+        return hasWorkbook;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dlautomation.service;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.metrics.DocumentMetrics;
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import com.example.dlautomation.logic.models.FolderProcessor;
+import com.example.dlautomation.logic.models.ProcessingOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs submitted folders through {@link FolderProcessor} on the extraction executor and keeps their
+ * status and workbooks until the job is deleted or its retention has passed.
+ */
+@Service
+public class ExtractionJobService {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private final ExtractionServiceProperties properties;
+    private final TaskExecutor executor;
+    private final Map<String, ExtractionJob> jobs = new ConcurrentHashMap<>();
+
+    public ExtractionJobService(ExtractionServiceProperties properties,
+                                @Qualifier(ExtractionServiceConfiguration.EXECUTOR) TaskExecutor executor) throws IOException {
+        this.properties = properties;
+        this.executor = executor;
+        Files.createDirectories(properties.getResultsDir());
+        if (properties.getAllowedRoots().isEmpty()) {
+            logger.warning("No dlautomation.service.allowed-roots configured, every submitted folder is rejected");
+        }
+        deleteOrphanedWorkbooks();
+    }
+
+    /**
+     * Queues the extraction of {@code folder}.
+     *
+     * @throws IllegalArgumentException if the folder does not exist or is outside the allowed roots
+     */
+    public ExtractionJob submit(Path folder, List<String> includeGlobs, List<String> excludeGlobs) {
+        Path normalizedFolder = folder.toAbsolutePath().normalize();
+        if (!Files.isDirectory(normalizedFolder)) {
+            throw new IllegalArgumentException("Folder does not exist: " + normalizedFolder);
+        }
+        // Resolve links so that a link inside an allowed root cannot point outside of it.
+        try {
+            normalizedFolder = normalizedFolder.toRealPath();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Folder cannot be read: " + normalizedFolder, e);
+        }
+        if (!isAllowed(normalizedFolder)) {
+            throw new IllegalArgumentException("Folder is outside the allowed roots: " + normalizedFolder);
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path outputFile = properties.getResultsDir().resolve("changes-" + id + ".xlsx");
+        ExtractionJob job = new ExtractionJob(id, normalizedFolder, includeGlobs, excludeGlobs, outputFile);
+        jobs.put(id, job);
+        executor.execute(() -> run(job));
+        logger.log(Level.INFO, "Queued extraction job {0} for folder {1}", new Object[]{id, normalizedFolder});
+        return job;
+    }
+
+    public Optional<ExtractionJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public Collection<ExtractionJob> list() {
+        return jobs.values();
+    }
+
+    /**
+     * Forgets a finished job and deletes its workbook. Running jobs cannot be deleted.
+     *
+     * @return false if there is no such job
+     */
+    public boolean delete(String id) throws IOException {
+        ExtractionJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        if (job.getStatus() == ExtractionJob.Status.QUEUED || job.getStatus() == ExtractionJob.Status.RUNNING) {
+            throw new IllegalStateException("Job " + id + " has not finished yet");
+        }
+        jobs.remove(id);
+        Files.deleteIfExists(job.getOutputFile());
+        return true;
+    }
+
+    /**
+     * Forgets finished jobs older than the job retention and deletes their workbooks.
+     */
+    @Scheduled(fixedDelayString = "${dlautomation.service.eviction-interval:PT5M}")
+    public void evictExpired() {
+        Duration retention = properties.getJobRetention();
+        if (retention.isZero()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        for (ExtractionJob job : jobs.values()) {
+            Instant finishedAt = job.getFinishedAt();
+            if (finishedAt != null && finishedAt.isBefore(cutoff) && jobs.remove(job.getId(), job)) {
+                try {
+                    Files.deleteIfExists(job.getOutputFile());
+                    logger.log(Level.INFO, "Evicted extraction job {0}", job.getId());
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not delete the workbook of evicted job " + job.getId(), e);
+                }
+            }
+        }
+    }
+
+    private void run(ExtractionJob job) {
+        job.started();
+        logger.log(Level.INFO, "Starting extraction job {0}", job.getId());
+        try {
+            RunMetrics metrics = FolderProcessor.processFolder(job.getFolder(), job.getOutputFile().toString(), createOptions(job));
+            int failed = (int) metrics.getDocuments().stream()
+                    .filter(document -> document.getOutcome() == DocumentMetrics.Outcome.FAILED)
+                    .count();
+            job.succeeded(metrics.getDocuments().size(), failed, Files.exists(job.getOutputFile()));
+            logger.log(Level.INFO, "Extraction job {0} finished: {1} documents, {2} failed",
+                    new Object[]{job.getId(), job.getDocuments(), failed});
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, "Extraction job " + job.getId() + " failed", e);
+            job.failed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private ProcessingOptions createOptions(ExtractionJob job) {
+        ProcessingOptions options = new ProcessingOptions();
+        options.setParallelism(properties.getParallelism());
+        options.setStreamingDocxReader(properties.isStreamingDocxReader());
+        options.setIncludeGlobs(job.getIncludeGlobs());
+        options.setExcludeGlobs(job.getExcludeGlobs());
+        return options;
+    }
+
+    private boolean isAllowed(Path realFolder) {
+        for (Path root : properties.getAllowedRoots()) {
+            try {
+                if (realFolder.startsWith(root.toRealPath())) {
+                    return true;
+                }
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Allowed root " + root + " does not exist", e);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Jobs do not survive a restart, so workbooks older than the retention that are left in the results
+     * directory can no longer be downloaded or deleted.
+     */
+    private void deleteOrphanedWorkbooks() throws IOException {
+        Duration retention = properties.getJobRetention();
+        if (retention.isZero()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        try (Stream<Path> files = Files.list(properties.getResultsDir())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("changes-") && name.endsWith(".xlsx")
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
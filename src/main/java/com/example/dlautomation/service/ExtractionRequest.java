@@ -0,0 +1,34 @@
+package com.example.dlautomation.service;
+
+import java.util.List;
+
+public class ExtractionRequest {
+
+    private String folder;
+    private List<String> include;
+    private List<String> exclude;
+
+    public String getFolder() {
+        return folder;
+    }
+
+    public void setFolder(String folder) {
+        this.folder = folder;
+    }
+
+    public List<String> getInclude() {
+        return include;
+    }
+
+    public void setInclude(List<String> include) {
+        this.include = include;
+    }
+
+    public List<String> getExclude() {
+        return exclude;
+    }
+
+    public void setExclude(List<String> exclude) {
+        this.exclude = exclude;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.dlautomation.service;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(ExtractionServiceProperties.class)
+@EnableScheduling
+public class ExtractionServiceConfiguration {
+
+    public static final String EXECUTOR = "extractionExecutor";
+
+    /**
+     * Runs at most {@code maxConcurrentJobs} extractions at once; further jobs wait in the queue.
+     * Each job uses its own pipeline threads on top of this.
+     */
+    @Bean(name = EXECUTOR)
+    public ThreadPoolTaskExecutor extractionExecutor(ExtractionServiceProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxConcurrentJobs());
+        executor.setMaxPoolSize(properties.getMaxConcurrentJobs());
+        executor.setThreadNamePrefix("extraction-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.dlautomation.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the extraction service, bound from {@code dlautomation.service.*} in application.properties.
+ */
+@ConfigurationProperties(prefix = "dlautomation.service")
+public class ExtractionServiceProperties {
+
+    private Path resultsDir = Paths.get(System.getProperty("java.io.tmpdir"), "dlautomation-jobs");
+    private int maxConcurrentJobs = 2;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean streamingDocxReader = false;
+    private List<Path> allowedRoots = new ArrayList<>();
+    private Duration jobRetention = Duration.ofHours(24);
+    private boolean warmUp = true;
+
+    public Path getResultsDir() {
+        return resultsDir;
+    }
+
+    public void setResultsDir(Path resultsDir) {
+        this.resultsDir = resultsDir;
+    }
+
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        if (maxConcurrentJobs < 1) {
+            throw new IllegalArgumentException("maxConcurrentJobs must be at least 1, was " + maxConcurrentJobs);
+        }
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public boolean isStreamingDocxReader() {
+        return streamingDocxReader;
+    }
+
+    public void setStreamingDocxReader(boolean streamingDocxReader) {
+        this.streamingDocxReader = streamingDocxReader;
+    }
+
+    /**
+     * Folders that may be submitted, including everything below them. Empty rejects every folder.
+     */
+    public List<Path> getAllowedRoots() {
+        return allowedRoots;
+    }
+
+    public void setAllowedRoots(List<Path> allowedRoots) {
+        this.allowedRoots = allowedRoots;
+    }
+
+    /**
+     * How long finished jobs and their workbooks are kept before they are evicted. Zero keeps them until
+     * they are deleted.
+     */
+    public Duration getJobRetention() {
+        return jobRetention;
+    }
+
+    public void setJobRetention(Duration jobRetention) {
+        if (jobRetention.isNegative()) {
+            throw new IllegalArgumentException("jobRetention must not be negative, was " + jobRetention);
+        }
+        this.jobRetention = jobRetention;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+}
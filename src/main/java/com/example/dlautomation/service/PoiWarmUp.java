@@ -0,0 +1,59 @@
+package com.example.dlautomation.service;
+
+import com.example.dlautomation.logic.logging.GlobalLogger;
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.ExcelStreamWriter;
+import com.example.dlautomation.logic.models.SampleDocument;
+import com.example.dlautomation.logic.readers.DocxWordReader;
+import com.example.dlautomation.logic.readers.StaxDocxWordReader;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Extracts a small in-memory document and writes a workbook once at startup, so the first job does not
+ * pay for loading the XWPF, XMLBeans and SXSSF classes and schemas. .doc support cannot be warmed this
+ * way because HWPF cannot create documents.
+ */
+@Component
+public class PoiWarmUp {
+
+    private static final Logger logger = GlobalLogger.getLogger(GlobalLogger.PROCESSING);
+
+    private final ExtractionServiceProperties properties;
+
+    public PoiWarmUp(ExtractionServiceProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isWarmUp()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] document = SampleDocument.createDocx();
+            String name = SampleDocument.FILE_NAME;
+            List<ChangeInfo> changes = new DocxWordReader(name).extract(document).getChanges();
+            new StaxDocxWordReader(name).extract(document);
+
+            Path workbook = Files.createTempFile(properties.getResultsDir(), "warm-up-", ".xlsx");
+            try (ExcelStreamWriter writer = new ExcelStreamWriter(workbook.toString())) {
+                writer.writeAll(changes);
+            } finally {
+                Files.deleteIfExists(workbook);
+            }
+            logger.log(Level.INFO, "Warm-up took {0} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Warm-up failed, the first job will be slower", e);
+        }
+    }
+}
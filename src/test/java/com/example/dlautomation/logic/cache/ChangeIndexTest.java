@@ -0,0 +1,120 @@
+package com.example.dlautomation.logic.cache;
+
+import com.example.dlautomation.logic.models.ChangeInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeIndexTest {
+
+    private static final long HEAP_LIMIT = 1024 * 1024;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void classifiesAddedRemovedAndUnchangedChanges() throws IOException {
+        Path indexFile = folder.resolve("changes.idx");
+        ChangeIndex first = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(first.hasPrevious()).isFalse();
+        assertThat(first.record(change("1", "VERTRAG_ID", "R 24.1"))).isFalse();
+        assertThat(first.record(change("2", "KUNDE_ID", "R 24.1"))).isFalse();
+        assertThat(first.record(change("3", "DATUM", "R 24.1"))).isFalse();
+        first.commit();
+
+        ChangeIndex second = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(second.hasPrevious()).isTrue();
+        // A release bump alone is no change; an edited change is one removed and one added.
+        assertThat(second.record(change("1", "VERTRAG_ID", "R 24.2"))).isTrue();
+        assertThat(second.record(change("2", "KUNDE_NR", "R 24.2"))).isFalse();
+        assertThat(second.record(change("4", "BETRAG", "R 24.2"))).isFalse();
+
+        assertThat(removed(second)).containsExactly("2:KUNDE_ID", "3:DATUM");
+        assertThat(second.getUnchangedCount()).isEqualTo(1);
+        second.commit();
+
+        ChangeIndex third = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(removed(third)).containsExactly("1:VERTRAG_ID", "2:KUNDE_NR", "4:BETRAG");
+        third.discard();
+        try (Stream<Path> files = Files.list(folder)) {
+            assertThat(files).containsExactly(indexFile);
+        }
+    }
+
+    @Test
+    void everyPreviousChangeMatchesOnce() throws IOException {
+        Path indexFile = folder.resolve("changes.idx");
+        ChangeIndex first = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        first.record(change("1", "VERTRAG_ID", "R 24.1"));
+        first.record(change("1", "VERTRAG_ID", "R 24.1"));
+        first.commit();
+
+        ChangeIndex second = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(second.record(change("1", "VERTRAG_ID", "R 24.1"))).isTrue();
+        assertThat(removed(second)).containsExactly("1:VERTRAG_ID");
+        assertThat(second.record(change("1", "VERTRAG_ID", "R 24.1"))).isTrue();
+        assertThat(second.record(change("1", "VERTRAG_ID", "R 24.1"))).isFalse();
+        assertThat(removed(second)).isEmpty();
+        assertThat(second.getUnchangedCount()).isEqualTo(2);
+        second.discard();
+    }
+
+    @Test
+    void indexOfAnotherScopeIsNotComparedAgainst() throws IOException {
+        Path indexFile = folder.resolve("changes.idx");
+        ChangeIndex first = ChangeIndex.open(indexFile, "folder-a", HEAP_LIMIT);
+        first.record(change("1", "VERTRAG_ID", "R 24.1"));
+        first.commit();
+
+        ChangeIndex other = ChangeIndex.open(indexFile, "folder-b", HEAP_LIMIT);
+        assertThat(other.hasPrevious()).isFalse();
+        assertThat(other.record(change("1", "VERTRAG_ID", "R 24.1"))).isFalse();
+        assertThat(removed(other)).isEmpty();
+        other.commit();
+
+        ChangeIndex reopened = ChangeIndex.open(indexFile, "folder-a", HEAP_LIMIT);
+        assertThat(reopened.hasPrevious()).isFalse();
+        reopened.discard();
+    }
+
+    @Test
+    void corruptIndexIsReplaced() throws IOException {
+        Path indexFile = folder.resolve("changes.idx");
+        ChangeIndex first = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        first.record(change("1", "VERTRAG_ID", "R 24.1"));
+        first.record(change("2", "KUNDE_ID", "R 24.1"));
+        first.commit();
+        byte[] written = Files.readAllBytes(indexFile);
+        Files.write(indexFile, Arrays.copyOf(written, written.length - 10));
+
+        ChangeIndex truncated = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(truncated.hasPrevious()).isFalse();
+        assertThat(truncated.record(change("1", "VERTRAG_ID", "R 24.1"))).isFalse();
+        assertThat(removed(truncated)).isEmpty();
+        truncated.commit();
+
+        Files.write(indexFile, new byte[]{1, 2, 3});
+        ChangeIndex garbage = ChangeIndex.open(indexFile, "scope", HEAP_LIMIT);
+        assertThat(garbage.hasPrevious()).isFalse();
+        garbage.discard();
+    }
+
+    private static ChangeInfo change(String changeNumber, String text, String releasestand) {
+        return new ChangeInfo("VERTRAG", changeNumber, text, releasestand, "MOD_A.MAP_B", true, null, text);
+    }
+
+    private static List<String> removed(ChangeIndex index) throws IOException {
+        List<String> removed = new ArrayList<>();
+        index.forEachRemoved(change -> removed.add(change.getChangeNumber() + ":" + change.getChange()));
+        return removed;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.dlautomation.logic.cache;
+
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import com.example.dlautomation.logic.readers.ExtractionRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractionCacheTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void compactsReplacedExtractionsOnSave() throws IOException {
+        Path document = Files.write(folder.resolve("MOD_A.MAP_B.docx"), new byte[]{1});
+        Path cacheFile = folder.resolve("extraction-cache.bin");
+        DocumentExtraction extraction = new DocumentExtraction("VERTRAG", "R 24.1", List.of(
+                new ChangeInfo("VERTRAG", "1", "VERTRAG_ID", "R 24.1", "MOD_A.MAP_B", true, null, "VERTRAG_ID")));
+
+        try (ExtractionCache cache = ExtractionCache.load(cacheFile, false, ExtractionRules.defaults(), 0)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(document, extraction);
+            }
+            long beforeSave = cache.bufferedBytes();
+            cache.save();
+
+            assertThat(cache.bufferedBytes()).isEqualTo(beforeSave / 10);
+            assertThat(cache.get(document).getChanges()).singleElement()
+                    .extracting(ChangeInfo::getChange).isEqualTo("VERTRAG_ID");
+        }
+        try (ExtractionCache reloaded = ExtractionCache.load(cacheFile, false, ExtractionRules.defaults(), 0)) {
+            assertThat(reloaded.get(document).getTableName()).isEqualTo("VERTRAG");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.dlautomation.logic.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillBufferTest {
+
+    @Test
+    void keepsSmallBuffersOnTheHeap() throws IOException {
+        try (SpillBuffer buffer = new SpillBuffer(1024)) {
+            long first = buffer.append(bytes("Tabellenname"));
+            long second = buffer.append(new byte[0]);
+
+            assertThat(buffer.isSpilled()).isFalse();
+            assertThat(buffer.read(first)).isEqualTo(bytes("Tabellenname"));
+            assertThat(buffer.read(second)).isEmpty();
+        }
+    }
+
+    @Test
+    void readsRecordsBackAfterSpillingAcrossSegments() throws IOException {
+        try (SpillBuffer buffer = new SpillBuffer(100, 64)) {
+            List<Long> handles = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                handles.add(buffer.append(bytes("change " + i + " ".repeat(i))));
+            }
+
+            assertThat(buffer.isSpilled()).isTrue();
+            for (int i = 0; i < 50; i++) {
+                assertThat(buffer.read(handles.get(i))).isEqualTo(bytes("change " + i + " ".repeat(i)));
+            }
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvChangeSinkTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws IOException {
+        Path file = folder.resolve("changes.csv");
+        try (CsvChangeSink sink = new CsvChangeSink(file, new RunMetrics())) {
+            sink.writeAll(List.of(new ChangeInfo("VERTRAG", "1", "SUBSTR(ID, 1, 3)", null, "MOD_A.MAP_B",
+                    false, "Neue Logik", "Wert \"alt\"\r\nWert neu")));
+        }
+
+        assertThat(Files.readString(file, StandardCharsets.UTF_8)).isEqualTo(
+                "Tabellenname,Feldname,Änderung,Releasestand,Logik,Mappingname,Ganze Reihe,Komplett rot\r\n"
+                        + "VERTRAG,1,\"SUBSTR(ID, 1, 3)\",,Neue Logik,MOD_A.MAP_B,\"Wert \"\"alt\"\"\r\nWert neu\",false\r\n");
+    }
+
+    @Test
+    void discardRemovesTheFile() throws IOException {
+        Path file = folder.resolve("changes.csv");
+        CsvChangeSink sink = new CsvChangeSink(file, new RunMetrics());
+        sink.discard();
+
+        assertThat(file).doesNotExist();
+    }
+}
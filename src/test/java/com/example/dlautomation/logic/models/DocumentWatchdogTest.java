@@ -0,0 +1,80 @@
+package com.example.dlautomation.logic.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentWatchdogTest {
+
+    @Test
+    void timeoutReturnsBeforeTheWorkerExits() throws Exception {
+        DocumentWatchdog watchdog = new DocumentWatchdog(100, 0, Thread.NORM_PRIORITY);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch exited = new CountDownLatch(1);
+        AtomicInteger exits = new AtomicInteger();
+
+        assertThatThrownBy(() -> watchdog.run("MOD_A.MAP_B.docx", () -> {
+            // Like a reader inside POI, which does not check for interrupts.
+            while (stuck.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            return DocumentExtraction.NO_CHANGES;
+        }, () -> {
+            exits.incrementAndGet();
+            exited.countDown();
+        })).isInstanceOf(IOException.class).hasMessage("Timed out after 0.1 s");
+        assertThat(exits).hasValue(0);
+
+        stuck.countDown();
+        assertThat(exited.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(exits).hasValue(1);
+    }
+
+    @Test
+    void taskCancelledBeforeItStartsRunsTheExitActionOnce() throws Exception {
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        CountDownLatch busy = new CountDownLatch(1);
+        workers.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        DocumentWatchdog watchdog = new DocumentWatchdog(100, 0, Thread.NORM_PRIORITY, workers);
+        AtomicBoolean started = new AtomicBoolean();
+        AtomicInteger exits = new AtomicInteger();
+
+        assertThatThrownBy(() -> watchdog.run("MOD_A.MAP_B.docx", () -> {
+            started.set(true);
+            return DocumentExtraction.NO_CHANGES;
+        }, exits::incrementAndGet)).isInstanceOf(IOException.class);
+        assertThat(exits).hasValue(1);
+
+        busy.countDown();
+        workers.shutdown();
+        assertThat(workers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(started).isFalse();
+        assertThat(exits).hasValue(1);
+    }
+
+    @Test
+    void failureOfTheTaskIsRethrownAfterTheExitAction() {
+        DocumentWatchdog watchdog = new DocumentWatchdog(5000, 0, Thread.NORM_PRIORITY);
+        AtomicInteger exits = new AtomicInteger();
+
+        assertThatThrownBy(() -> watchdog.run("MOD_A.MAP_B.docx", () -> {
+            throw new IOException("corrupt");
+        }, exits::incrementAndGet)).isInstanceOf(IOException.class).hasMessage("corrupt");
+        assertThat(exits).hasValue(1);
+    }
+}
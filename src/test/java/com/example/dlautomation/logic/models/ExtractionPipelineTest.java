@@ -0,0 +1,48 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractionPipelineTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void quarantinedDocumentIsRetriedAfterTheOthers() throws Exception {
+        Path broken = Files.write(folder.resolve("MOD_A.MAP_BROKEN.docx"), "not yet".getBytes(StandardCharsets.US_ASCII));
+        Path valid = Files.write(folder.resolve("MOD_A.MAP_VALID.docx"), SampleDocument.createDocx());
+        RunMetrics metrics = new RunMetrics();
+        List<String> written = new ArrayList<>();
+
+        int documents = new ExtractionPipeline(handler -> {
+            handler.handle(broken);
+            handler.handle(valid);
+            return 2;
+        }, new ProcessingOptions(), null, metrics).run((document, changes) -> {
+            written.add(document.getFileName() + ":" + changes.size());
+            // Repaired before the retry, which only starts once every other document is written.
+            if (document.equals(valid)) {
+                Files.copy(valid, broken, StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+
+        assertThat(documents).isEqualTo(2);
+        assertThat(written).containsExactly("MOD_A.MAP_VALID.docx:1", "MOD_A.MAP_BROKEN.docx:1");
+        assertThat(metrics.getQuarantined()).singleElement().satisfies(quarantined -> {
+            assertThat(quarantined.getPath()).isEqualTo(broken.toString());
+            assertThat(quarantined.isRetried()).isTrue();
+            assertThat(quarantined.isRecovered()).isTrue();
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesChangeSinkTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void escapesStringsSoEveryChangeStaysOneLine() throws IOException {
+        Path file = folder.resolve("changes.jsonl");
+        String wholeString = "Pfad C:\\Daten\t\"neu\"\r\nZeile 2\u0001";
+        try (JsonLinesChangeSink sink = new JsonLinesChangeSink(file, new RunMetrics())) {
+            sink.writeAll(List.of(
+                    new ChangeInfo("VERTRAG", "1", "ID", null, "MOD_A.MAP_B", true, "Rückbau Logik", wholeString),
+                    new ChangeInfo("KUNDE", "2", "NAME", "R 24.1", "MOD_A.MAP_B", false, "Neue Logik", "NAME")));
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\\u0001").doesNotContain("\t");
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertThat(first.get("wholeString").asText()).isEqualTo(wholeString);
+        assertThat(first.get("releasestand").isNull()).isTrue();
+        assertThat(first.get("logik").asText()).isEqualTo("Rückbau Logik");
+        assertThat(first.get("fullyRed").asBoolean()).isTrue();
+        assertThat(mapper.readTree(lines.get(1)).get("tableName").asText()).isEqualTo("KUNDE");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.dlautomation.logic.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseAdmissionTest {
+
+    private static final long BUDGET = 100;
+
+    @Test
+    void admitsInArrivalOrder() throws Exception {
+        ParseAdmission admission = new ParseAdmission();
+        admission.join(2, BUDGET);
+        ParseAdmission.Permit first = admission.acquire(60, BUDGET, 0);
+        Map<String, ParseAdmission.Permit> admitted = new ConcurrentHashMap<>();
+
+        // The small document would fit next to the first one, but the large one arrived before it.
+        Thread large = startAcquire(admission, 95, "large", admitted);
+        awaitWaiting(large);
+        Thread small = startAcquire(admission, 10, "small", admitted);
+        awaitWaiting(small);
+        assertThat(admitted).isEmpty();
+
+        admission.release(first);
+        large.join(5000);
+        assertThat(admitted).containsOnlyKeys("large");
+        awaitWaiting(small);
+
+        admission.release(admitted.get("large"));
+        small.join(5000);
+        assertThat(admitted).containsOnlyKeys("large", "small");
+    }
+
+    @Test
+    void documentLargerThanTheBudgetRunsAlone() throws Exception {
+        ParseAdmission admission = new ParseAdmission();
+        admission.join(2, BUDGET);
+
+        ParseAdmission.Permit oversized = admission.acquire(1000, BUDGET, 100);
+        assertThatThrownBy(() -> admission.acquire(1, BUDGET, 100))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("No heap to parse the document within 0.1 s");
+
+        admission.release(oversized);
+        admission.release(admission.acquire(1, BUDGET, 100));
+    }
+
+    @Test
+    void abandonedParseFreesItsSlotButNotItsHeap() throws Exception {
+        ParseAdmission admission = new ParseAdmission();
+        admission.join(2, BUDGET);
+        ParseAdmission.Permit timedOut = admission.acquire(50, BUDGET, 100);
+        ParseAdmission.Permit running = admission.acquire(40, BUDGET, 100);
+        assertThatThrownBy(() -> admission.acquire(10, BUDGET, 100)).isInstanceOf(IOException.class);
+
+        admission.abandon(timedOut);
+        admission.abandon(timedOut);
+        assertThatThrownBy(() -> admission.acquire(20, BUDGET, 100)).isInstanceOf(IOException.class);
+        ParseAdmission.Permit next = admission.acquire(10, BUDGET, 100);
+
+        // The stuck worker exits: its heap is freed once, however often it is released.
+        admission.release(timedOut);
+        admission.release(timedOut);
+        admission.release(next);
+        ParseAdmission.Permit large = admission.acquire(60, BUDGET, 100);
+        assertThatThrownBy(() -> admission.acquire(1, BUDGET, 100)).isInstanceOf(IOException.class);
+        admission.release(large);
+        admission.release(running);
+        admission.leave(2);
+    }
+
+    private static Thread startAcquire(ParseAdmission admission, long cost, String name,
+                                       Map<String, ParseAdmission.Permit> admitted) {
+        Thread thread = new Thread(() -> {
+            try {
+                admitted.put(name, admission.acquire(cost, BUDGET, 0));
+            } catch (InterruptedException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 500 && thread.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+    }
+}
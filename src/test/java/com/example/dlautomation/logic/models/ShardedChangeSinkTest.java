@@ -0,0 +1,90 @@
+package com.example.dlautomation.logic.models;
+
+import com.example.dlautomation.logic.metrics.RunMetrics;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedChangeSinkTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void spoolsShardsBeyondTheOpenLimitAndLinksThemFromTheIndex() throws Exception {
+        Path indexFile = folder.resolve("out.xlsx");
+        ShardedChangeSink sink = new ShardedChangeSink(indexFile, ShardKey.TABLE, new RunMetrics(), 2, 1);
+        sink.writeAll(List.of(change("VERTRAG", "1", true), change("KUNDE/ALT", "1", true)));
+        sink.writeAll(List.of(change("KUNDE:ALT", "1", false), change("KUNDE/ALT", "2", false),
+                change("VERTRAG", "2", false), change("KUNDE/ALT", "3", true)));
+        sink.close();
+
+        // Both KUNDE keys sanitize to the same name; the later one gets a suffix.
+        assertThat(readRows(indexFile, 0)).containsExactly(
+                "KUNDE/ALT|out-KUNDE_ALT.xlsx|2.0|1.0",
+                "KUNDE:ALT|out-KUNDE_ALT-2.xlsx|0.0|1.0",
+                "VERTRAG|out-VERTRAG.xlsx|1.0|1.0");
+        try (XSSFWorkbook index = new XSSFWorkbook(indexFile.toFile())) {
+            assertThat(index.getSheetAt(0).getRow(2).getCell(1).getHyperlink().getAddress())
+                    .isEqualTo("out-KUNDE_ALT-2.xlsx");
+        }
+
+        assertThat(changeNumbers(folder.resolve("out-VERTRAG.xlsx"), 0)).containsExactly("1");
+        assertThat(changeNumbers(folder.resolve("out-VERTRAG.xlsx"), 1)).containsExactly("2");
+        assertThat(changeNumbers(folder.resolve("out-KUNDE_ALT.xlsx"), 0)).containsExactly("1", "3");
+        assertThat(changeNumbers(folder.resolve("out-KUNDE_ALT.xlsx"), 1)).containsExactly("2");
+        assertThat(changeNumbers(folder.resolve("out-KUNDE_ALT-2.xlsx"), 0)).isEmpty();
+        assertThat(changeNumbers(folder.resolve("out-KUNDE_ALT-2.xlsx"), 1)).containsExactly("1");
+    }
+
+    @Test
+    void failedShardFailsTheNextWrite() throws Exception {
+        ShardedChangeSink sink = new ShardedChangeSink(folder.resolve("out.xlsx"), ShardKey.TABLE, new RunMetrics(), 2);
+        // Longer than an Excel cell may be, so the shard's writer thread fails.
+        sink.write(new ChangeInfo("VERTRAG", "1", "X".repeat(40_000), "R0", "MOD_A.MAP_B", true, null, null));
+
+        IOException failure = null;
+        for (int i = 0; i < 250 && failure == null; i++) {
+            Thread.sleep(20);
+            try {
+                sink.write(change("KUNDE", "1", true));
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        assertThat(failure).hasMessage("Writing a shard failed").hasRootCauseInstanceOf(IllegalArgumentException.class);
+        sink.discard();
+    }
+
+    private static ChangeInfo change(String tableName, String changeNumber, boolean isFullyRed) {
+        return new ChangeInfo(tableName, changeNumber, "FELD", "R0", "MOD_A.MAP_B", isFullyRed, null, "FELD");
+    }
+
+    private static List<String> readRows(Path file, int sheetIndex) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(file.toFile())) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            for (Row row : sheet) {
+                if (row.getRowNum() > 0) {
+                    List<String> cells = new ArrayList<>();
+                    row.forEach(cell -> cells.add(cell.toString()));
+                    rows.add(String.join("|", cells));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> changeNumbers(Path file, int sheetIndex) throws Exception {
+        return readRows(file, sheetIndex).stream().map(row -> row.split("\\|")[1]).toList();
+    }
+}
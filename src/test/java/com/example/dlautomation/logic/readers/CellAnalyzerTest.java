@@ -0,0 +1,102 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.models.ChangeInfo;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CellAnalyzerTest {
+
+    @Test
+    void redRunsNextToOtherTextAreNotFullyRed() {
+        CellAnalyzer analyzer = new CellAnalyzer();
+        analyzer.addRun("CASE WHEN ", false, false);
+        analyzer.addRun("VERTRAG_ID", true, false);
+        analyzer.addRun(" END", false, false);
+
+        assertThat(analyzer.hasRedText()).isTrue();
+        assertThat(analyzer.redText()).isEqualTo("VERTRAG_ID");
+        assertThat(analyzer.wholeText()).isEqualTo("CASE WHEN VERTRAG_ID END");
+        assertThat(analyzer.isFullyRed()).isFalse();
+        assertThat(analyzer.logik()).isEqualTo(CellAnalyzer.NEW_LOGIC);
+        assertThat(analyzer.runCount()).isEqualTo(3);
+    }
+
+    @Test
+    void blankAndEmptyRunsDoNotCountAsOtherText() {
+        CellAnalyzer analyzer = new CellAnalyzer();
+        analyzer.addRun("  ", false, false);
+        analyzer.addRun(null, false, false);
+        analyzer.addRun("VERTRAG_ID", true, false);
+        analyzer.addRun("", false, false);
+
+        assertThat(analyzer.isFullyRed()).isTrue();
+        assertThat(analyzer.redText()).isEqualTo("VERTRAG_ID");
+        assertThat(analyzer.wholeText()).isEqualTo("VERTRAG_ID");
+
+        analyzer.reset();
+        analyzer.addRun("  ", false, false);
+        assertThat(analyzer.hasRedText()).isFalse();
+        assertThat(analyzer.isFullyRed()).isFalse();
+        assertThat(analyzer.redText()).isEmpty();
+    }
+
+    @Test
+    void struckThroughRedRunIsRemovedLogic() {
+        CellAnalyzer analyzer = new CellAnalyzer();
+        analyzer.addRun("ALT_ID", true, true);
+        analyzer.addRun("NEU_ID", true, false);
+
+        assertThat(analyzer.logik()).isEqualTo(CellAnalyzer.REMOVED_LOGIC);
+        assertThat(analyzer.redText()).isEqualTo("ALT_ID NEU_ID");
+
+        analyzer.reset();
+        analyzer.addRun("ALT_ID", false, true);
+        analyzer.addRun("NEU_ID", true, false);
+        assertThat(analyzer.logik()).isEqualTo(CellAnalyzer.NEW_LOGIC);
+    }
+
+    @Test
+    void cellWithRedParagraphsOnlyIsFullyRedInBothDocxReaders() throws IOException {
+        byte[] content;
+        try (XWPFDocument document = new XWPFDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XWPFTableCell fullyRed = document.createTable(2, 2).getRow(0).getCell(1);
+            fullyRed.getTableRow().getCell(0).setText("1");
+            addRun(fullyRed.getParagraphs().get(0).createRun(), "VERTRAG_ID", false);
+            fullyRed.addParagraph();
+            addRun(fullyRed.addParagraph().createRun(), "KUNDE_ID", true);
+
+            XWPFTableCell partlyRed = fullyRed.getTableRow().getTable().getRow(1).getCell(1);
+            partlyRed.getTableRow().getCell(0).setText("2");
+            addRun(partlyRed.getParagraphs().get(0).createRun(), "VERTRAG_ID", false);
+            partlyRed.addParagraph().createRun().setText("KUNDE_ID");
+            document.write(out);
+            content = out.toByteArray();
+        }
+
+        for (AbstractWordReader reader : List.of(new DocxWordReader("MOD_A.MAP_B.docx"),
+                new StaxDocxWordReader("MOD_A.MAP_B.docx"))) {
+            List<ChangeInfo> changes = reader.extract(content).getChanges();
+
+            assertThat(changes).extracting(ChangeInfo::getChangeNumber).containsExactly("1", "2");
+            assertThat(changes.get(0).isFullyRed()).isTrue();
+            assertThat(changes.get(0).getChange()).isEqualTo("VERTRAG_ID KUNDE_ID");
+            assertThat(changes.get(0).getLogik()).isEqualTo(CellAnalyzer.REMOVED_LOGIC);
+            assertThat(changes.get(1).isFullyRed()).isFalse();
+            assertThat(changes.get(1).getLogik()).isEqualTo(CellAnalyzer.NEW_LOGIC);
+        }
+    }
+
+    private static void addRun(XWPFRun run, String text, boolean isStrikeThrough) {
+        run.setText(text);
+        run.setColor("FF0000");
+        run.setStrikeThrough(isStrikeThrough);
+    }
+}
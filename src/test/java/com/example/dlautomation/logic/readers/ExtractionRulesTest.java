@@ -0,0 +1,36 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import com.example.dlautomation.logic.models.SampleDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractionRulesTest {
+
+    @Test
+    void rulesFileReplacesSingleEntries() throws IOException {
+        Properties overrides = new Properties();
+        overrides.setProperty("docx.tableName.labels", "Tabellenname/View, Zieltabelle");
+        overrides.setProperty("filter.excludedChangeNumbers", "Join-Bedingungen, Filter");
+        ExtractionRules rules = ExtractionRules.of(overrides);
+
+        assertThat(rules.isExcludedChangeNumber("join-bedingungen")).isTrue();
+        assertThat(rules.isExcludedChangeNumber("FILTER")).isTrue();
+        assertThat(rules.isExcludedChangeNumber("1")).isFalse();
+        assertThat(rules.fingerprint()).isNotEqualTo(ExtractionRules.defaults().fingerprint());
+
+        byte[] content = SampleDocument.createDocx("Zieltabelle", "VERTRAG", "VERTRAG_ID", "FF0000");
+        DocumentExtraction byDefault = new DocxWordReader("MOD_A.MAP_B.docx").extract(content);
+        DocumentExtraction configured = new DocxWordReader("MOD_A.MAP_B.docx", rules).extract(content);
+        DocumentExtraction streamed = new StaxDocxWordReader("MOD_A.MAP_B.docx", rules).extract(content);
+
+        assertThat(byDefault.getTableName()).isEqualTo("Unknown Table Name");
+        assertThat(configured.getTableName()).isEqualTo("VERTRAG");
+        assertThat(streamed.getTableName()).isEqualTo("VERTRAG");
+        assertThat(configured.getReleasestand()).isEqualTo("R0");
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.dlautomation.logic.readers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsOverlappingKeywordsInOnePass() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("he", "she", "his", "hers"));
+
+        assertThat(matches(matcher, "ushers")).containsExactly("she@1", "he@2", "hers@2");
+        assertThat(matches(matcher, "ahishe")).containsExactly("his@1", "she@3", "he@4");
+        assertThat(matches(matcher, "xyz")).isEmpty();
+    }
+
+    @Test
+    void carriesStateIntoTheNextText() {
+        KeywordMatcher matcher = new KeywordMatcher(List.of("Stand:", "Wenn"));
+        List<String> found = new ArrayList<>();
+
+        int state = matcher.scan("Version 3, Sta", KeywordMatcher.INITIAL_STATE,
+                (keyword, start) -> found.add(matcher.keyword(keyword) + "@" + start));
+        matcher.scan("nd: 12.2024, Wenn", state, (keyword, start) -> found.add(matcher.keyword(keyword) + "@" + start));
+
+        assertThat(found).containsExactly("Stand:@-3", "Wenn@13");
+    }
+
+    private static List<String> matches(KeywordMatcher matcher, String text) {
+        List<String> found = new ArrayList<>();
+        matcher.scan(text, (keyword, start) -> found.add(matcher.keyword(keyword) + "@" + start));
+        return found;
+    }
+}
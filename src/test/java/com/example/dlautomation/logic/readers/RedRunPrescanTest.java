@@ -0,0 +1,80 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.models.SampleDocument;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedRunPrescanTest {
+
+    @Test
+    void docxWithRedRunMayContainRed() throws IOException {
+        byte[] content = SampleDocument.createDocx("Tabellenname/View", "VERTRAG", "VERTRAG_ID", "ff0000");
+
+        assertThat(RedRunPrescan.mayContainRed("MOD_A.MAP_B.docx", content)).isTrue();
+        assertThat(new DocxWordReader("MOD_A.MAP_B.docx").extract(content).getChanges()).isNotEmpty();
+    }
+
+    @Test
+    void docxWithoutRedRunIsSkipped() throws IOException {
+        byte[] content = SampleDocument.createDocx("Tabellenname/View", "VERTRAG", "VERTRAG_ID", "0000FF");
+
+        assertThat(RedRunPrescan.mayContainRed("MOD_A.MAP_B.docx", content)).isFalse();
+        assertThat(new DocxWordReader("MOD_A.MAP_B.docx").extract(content).getChanges()).isEmpty();
+    }
+
+    @Test
+    void unreadableDocumentsAreLeftToTheReader() {
+        byte[] garbage = "not a document".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(RedRunPrescan.mayContainRed("broken.docx", garbage)).isTrue();
+        assertThat(RedRunPrescan.mayContainRed("broken.doc", garbage)).isTrue();
+    }
+
+    @Test
+    void encryptedDocIsLeftToTheReader() throws IOException {
+        assertThat(RedRunPrescan.mayContainRed("MOD_A.MAP_B.doc", createDoc((byte) 0x01))).isTrue();
+        assertThat(RedRunPrescan.mayContainRed("MOD_A.MAP_B.doc", createDoc((byte) 0x00))).isFalse();
+    }
+
+    @Test
+    void findsPatternAfterPartialMatchesAndAcrossBuffers() throws IOException {
+        byte[] red = {'F', 'F', '0', '0', '0', '0'};
+        assertThat(contains("w:val=\"FFF0000\"", red)).isTrue();
+        assertThat(contains("FF0F0000 FF000", red)).isFalse();
+
+        byte[] padded = new byte[16 * 1024 + 3];
+        Arrays.fill(padded, (byte) ' ');
+        System.arraycopy(red, 0, padded, padded.length - red.length, red.length);
+        assertThat(RedRunPrescan.contains(new ByteArrayInputStream(padded), red, false)).isTrue();
+
+        byte[] sprm = {0x42, 0x2A, 0x06};
+        assertThat(RedRunPrescan.contains(new ByteArrayInputStream(new byte[]{0x42, 0x42, 0x2A, 0x06}), sprm, false)).isTrue();
+        assertThat(RedRunPrescan.contains(new ByteArrayInputStream(new byte[]{0x42, 0x2A, 0x02, 0x06}), sprm, false)).isFalse();
+    }
+
+    // A WordDocument stream without sprmCIco whose FIB only differs in the fEncrypted flag.
+    private static byte[] createDoc(byte fibFlags) throws IOException {
+        byte[] wordDocument = new byte[512];
+        wordDocument[0] = (byte) 0xEC;
+        wordDocument[1] = (byte) 0xA5;
+        wordDocument[0x0B] = fibFlags;
+        try (POIFSFileSystem fileSystem = new POIFSFileSystem(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            fileSystem.createDocument(new ByteArrayInputStream(wordDocument), "WordDocument");
+            fileSystem.createDocument(new ByteArrayInputStream(new byte[512]), "1Table");
+            fileSystem.writeFilesystem(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static boolean contains(String text, byte[] pattern) throws IOException {
+        return RedRunPrescan.contains(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), pattern, true);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.dlautomation.logic.readers;
+
+import com.example.dlautomation.logic.models.ChangeInfo;
+import com.example.dlautomation.logic.models.DocumentExtraction;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTHyperlink;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTR;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTRunTrackChange;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTSdtRun;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaxDocxWordReaderEquivalenceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void headerRowsAndRedRuns() throws IOException {
+        assertEquivalent(document -> {
+            XWPFTable header = document.createTable(2, 2);
+            header.getRow(0).getCell(0).setText("Tabellenname/View");
+            header.getRow(0).getCell(1).setText("  DL_VERTRAG  ");
+            header.getRow(1).getCell(0).setText("Releasestand");
+            header.getRow(1).getCell(1).setText("R24.10");
+
+            XWPFTable changes = document.createTable(4, 3);
+            changes.getRow(0).getCell(0).setText("1");
+            addRun(changes.getRow(0).getCell(1), "VERTRAG_ID", "FF0000", false);
+            changes.getRow(1).getCell(0).setText("2");
+            addRun(changes.getRow(1).getCell(1), "alt ", null, false);
+            addRun(changes.getRow(1).getCell(1), "neu", "ff0000", false);
+            changes.getRow(2).getCell(0).setText("Join-Bedingungen");
+            addRun(changes.getRow(2).getCell(1), "entfernt", "FF0000", true);
+            changes.getRow(3).getCell(0).setText("4");
+            addRun(changes.getRow(3).getCell(1), "blau", "0000FF", true);
+        });
+    }
+
+    @Test
+    void missingHeaderRowsFallBackToUnknown() throws IOException {
+        DocumentExtraction extraction = assertEquivalent(document -> {
+            XWPFTable table = document.createTable(1, 2);
+            addRun(table.getRow(0).getCell(1), "rot", "FF0000", false);
+        });
+
+        assertThat(extraction.getTableName()).isEqualTo("Unknown Table Name");
+        assertThat(extraction.getReleasestand()).isEqualTo("Unknown Releasestand");
+        assertThat(extraction.getChanges()).hasSize(1);
+    }
+
+    @Test
+    void multipleParagraphsTabsBreaksAndCaps() throws IOException {
+        assertEquivalent(document -> {
+            XWPFTable table = document.createTable(2, 2);
+            XWPFTableCell cell = table.getRow(0).getCell(1);
+            XWPFRun first = addRun(cell, "erste", "FF0000", false);
+            first.addTab();
+            first.setText("nach tab");
+            first.addBreak();
+            XWPFParagraph second = cell.addParagraph();
+            XWPFRun caps = second.createRun();
+            caps.setText("gross");
+            caps.setCapitalized(true);
+            caps.setColor("FF0000");
+
+            XWPFTableCell fully = table.getRow(1).getCell(1);
+            XWPFRun only = addRun(fully, "komplett rot", "FF0000", false);
+            only.setStrikeThrough(true);
+        });
+    }
+
+    @Test
+    void runsWithoutTextAndEmptyCells() throws IOException {
+        assertEquivalent(document -> {
+            XWPFTable table = document.createTable(3, 2);
+            XWPFRun empty = table.getRow(0).getCell(1).getParagraphs().get(0).createRun();
+            empty.setColor("FF0000");
+            addRun(table.getRow(0).getCell(1), "text", "FF0000", false);
+            table.getRow(1).getCell(0).setText("leer");
+            XWPFRun tabOnly = table.getRow(2).getCell(1).getParagraphs().get(0).createRun();
+            tabOnly.setColor("FF0000");
+            tabOnly.addTab();
+        });
+    }
+
+    @Test
+    void hyperlinkTrackedChangesAndContentControls() throws IOException {
+        assertEquivalent(document -> {
+            XWPFTable table = document.createTable(1, 2);
+            CTP paragraph = table.getRow(0).getCell(1).getParagraphs().get(0).getCTP();
+
+            CTHyperlink hyperlink = paragraph.addNewHyperlink();
+            redRun(hyperlink.addNewR(), "link", false);
+
+            CTRunTrackChange insertion = paragraph.addNewIns();
+            insertion.setId(java.math.BigInteger.ONE);
+            insertion.setAuthor("test");
+            redRun(insertion.addNewR(), "eingefuegt", false);
+
+            CTRunTrackChange deletion = paragraph.addNewDel();
+            deletion.setId(java.math.BigInteger.TWO);
+            deletion.setAuthor("test");
+            CTR deleted = deletion.addNewR();
+            deleted.addNewRPr().addNewColor().setVal("FF0000");
+            deleted.addNewDelText().setStringValue("geloescht");
+
+            CTSdtRun contentControl = paragraph.addNewSdt();
+            CTR controlRun = contentControl.addNewSdtContent().addNewR();
+            controlRun.addNewT().setStringValue("im Steuerelement");
+
+            redRun(paragraph.addNewR(), "ende", true);
+        });
+    }
+
+    @Test
+    void nestedTablesAreNotPartOfTheOuterCell() throws IOException {
+        assertEquivalent(document -> {
+            XWPFTable table = document.createTable(1, 2);
+            XWPFTableCell cell = table.getRow(0).getCell(1);
+            addRun(cell, "aussen", "FF0000", false);
+            XWPFTable nested = cell.insertNewTbl(cell.getParagraphArray(0).getCTP().newCursor());
+            if (nested != null) {
+                nested.createRow().createCell().setText("innen");
+            }
+            cell.addParagraph().createRun().setText("nachher");
+        });
+    }
+
+    @Test
+    void randomDocuments() throws IOException {
+        Random random = new Random(20241018L);
+        String[] colors = {null, "FF0000", "ff0000", "00FF00", "auto"};
+        String[] words = {"FELD_A", "Wert", " mit Leerzeichen ", "", "Tabellenname/View", "Releasestand", "ä ö ü"};
+
+        for (int iteration = 0; iteration < 25; iteration++) {
+            assertEquivalent(document -> {
+                int tables = 1 + random.nextInt(3);
+                for (int t = 0; t < tables; t++) {
+                    XWPFTable table = document.createTable(1 + random.nextInt(6), 1 + random.nextInt(4));
+                    for (int r = 0; r < table.getNumberOfRows(); r++) {
+                        for (XWPFTableCell cell : table.getRow(r).getTableCells()) {
+                            int paragraphs = 1 + random.nextInt(2);
+                            for (int p = 0; p < paragraphs; p++) {
+                                XWPFParagraph paragraph = p == 0 ? cell.getParagraphs().get(0) : cell.addParagraph();
+                                int runs = random.nextInt(4);
+                                for (int i = 0; i < runs; i++) {
+                                    XWPFRun run = paragraph.createRun();
+                                    run.setText(words[random.nextInt(words.length)]);
+                                    String color = colors[random.nextInt(colors.length)];
+                                    if (color != null) {
+                                        run.setColor(color);
+                                    }
+                                    run.setStrikeThrough(random.nextInt(4) == 0);
+                                    if (random.nextInt(6) == 0) {
+                                        run.addTab();
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    document.createParagraph().createRun().setText("Zwischentext");
+                }
+            });
+        }
+    }
+
+    private DocumentExtraction assertEquivalent(Consumer<XWPFDocument> content) throws IOException {
+        Path file = tempDir.resolve("MOD_TEST.MAP_DOC_" + System.nanoTime() + ".docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = new FileOutputStream(file.toFile())) {
+            content.accept(document);
+            document.write(out);
+        }
+
+        DocumentExtraction expected = new DocxWordReader(file.toString()).extract();
+        DocumentExtraction actual = new StaxDocxWordReader(file.toString()).extract();
+
+        assertThat(actual.getTableName()).isEqualTo(expected.getTableName());
+        assertThat(actual.getReleasestand()).isEqualTo(expected.getReleasestand());
+        assertThat(describe(actual.getChanges())).containsExactlyElementsOf(describe(expected.getChanges()));
+        return actual;
+    }
+
+    private static List<String> describe(List<ChangeInfo> changes) {
+        List<String> descriptions = new ArrayList<>();
+        for (ChangeInfo change : changes) {
+            descriptions.add(String.join("|", change.getTableName(), change.getChangeNumber(), change.getChange(),
+                    change.getReleasestand(), String.valueOf(change.getMappingName()), String.valueOf(change.isFullyRed()),
+                    change.getLogik(), change.getWholeString()));
+        }
+        return descriptions;
+    }
+
+    private static XWPFRun addRun(XWPFTableCell cell, String text, String color, boolean strikeThrough) {
+        XWPFRun run = cell.getParagraphs().get(0).createRun();
+        run.setText(text);
+        if (color != null) {
+            run.setColor(color);
+        }
+        run.setStrikeThrough(strikeThrough);
+        return run;
+    }
+
+    private static void redRun(CTR run, String text, boolean strikeThrough) {
+        run.addNewRPr().addNewColor().setVal("FF0000");
+        if (strikeThrough) {
+            run.getRPr().addNewStrike();
+        }
+        run.addNewT().setStringValue(text);
+    }
+}
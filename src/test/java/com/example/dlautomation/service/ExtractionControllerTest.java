@@ -0,0 +1,87 @@
+package com.example.dlautomation.service;
+
+import com.example.dlautomation.logic.models.SampleDocument;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"dlautomation.service.warm-up=false",
+        "dlautomation.service.allowed-roots=${java.io.tmpdir}"})
+@AutoConfigureMockMvc
+class ExtractionControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void submitPollAndDownload() throws Exception {
+        Files.write(tempDir.resolve("MOD_TEST.MAP_JOB.docx"), SampleDocument.createDocx());
+
+        String body = objectMapper.writeValueAsString(Map.of("folder", tempDir.toString()));
+        String submitted = mockMvc.perform(post("/api/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(submitted).get("id").asText();
+
+        JsonNode job = objectMapper.readTree(submitted);
+        for (int i = 0; i < 200 && !isFinished(job); i++) {
+            Thread.sleep(50);
+            job = objectMapper.readTree(mockMvc.perform(get("/api/jobs/" + id)).andReturn().getResponse().getContentAsString());
+        }
+        assertThat(job.get("status").asText()).isEqualTo("SUCCEEDED");
+        assertThat(job.get("documents").asInt()).isEqualTo(1);
+
+        byte[] workbook = mockMvc.perform(get("/api/jobs/" + id + "/workbook"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        try (XSSFWorkbook excel = new XSSFWorkbook(new ByteArrayInputStream(workbook))) {
+            assertThat(excel.getSheetAt(0).getRow(1).getCell(2).getStringCellValue()).isEqualTo("FELD");
+        }
+
+        mockMvc.perform(delete("/api/jobs/" + id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/jobs/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void missingFolderIsRejected() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("folder", tempDir.resolve("missing").toString()));
+        mockMvc.perform(post("/api/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void folderOutsideTheAllowedRootsIsRejected() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("folder", Path.of("").toAbsolutePath().toString()));
+        mockMvc.perform(post("/api/jobs").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static boolean isFinished(JsonNode job) {
+        String status = job.get("status").asText();
+        return status.equals("SUCCEEDED") || status.equals("FAILED");
+    }
+}